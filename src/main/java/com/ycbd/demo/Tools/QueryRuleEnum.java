@@ -1,5 +1,8 @@
 package com.ycbd.demo.Tools;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum QueryRuleEnum {
 
     GT(">", "gt", "大于"),
@@ -19,6 +22,17 @@ public enum QueryRuleEnum {
     RANGE(" RANGE ", "RANGE", "范围"),
     SQL_RULES("USE_SQL_RULES", "ext", "自定义SQL片段");
 
+    /** 按运算符与按条件名(小写)的索引,替代遍历 values() */
+    private static final Map<String, QueryRuleEnum> BY_VALUE = new HashMap<>();
+    private static final Map<String, QueryRuleEnum> BY_CONDITION = new HashMap<>();
+
+    static {
+        for (QueryRuleEnum rule : values()) {
+            BY_VALUE.putIfAbsent(rule.value, rule);
+            BY_CONDITION.putIfAbsent(rule.condition.toLowerCase(), rule);
+        }
+    }
+
     private String value;
 
     private String condition;
@@ -56,13 +70,8 @@ public enum QueryRuleEnum {
     }
 
     public static QueryRuleEnum getByValue(String value) {
-
-        for (QueryRuleEnum val : values()) {
-            if (val.getValue().equals(value) || val.getCondition().equalsIgnoreCase(value.trim())) {
-                return val;
-            }
-        }
-        return null;
+        QueryRuleEnum rule = BY_VALUE.get(value);
+        return rule != null ? rule : BY_CONDITION.get(value.trim().toLowerCase());
     }
     public static QueryRuleEnum getByMsg(String value) {
         for (QueryRuleEnum val : values()) {
@@ -0,0 +1,131 @@
+package com.ycbd.demo.config;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.service.cache.MetadataCache;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动预热
+ * 在应用对外提供服务前并行加载全部表的元数据与校验规则,并将连接池打开到最小连接数。
+ * ApplicationRunner 执行完毕后 Spring Boot 才会发布就绪状态,因此预热完成前节点不会接收流量。
+ * 通过 metadata.preload.enabled=true 开启
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "metadata.preload", name = "enabled", havingValue = "true")
+public class MetadataPreloadRunner implements ApplicationRunner {
+
+    private final SystemMapper systemMapper;
+    private final MetadataCache metadataCache;
+    private final DataSource dataSource;
+
+    @Value("${metadata.preload.threads:4}")
+    private int threads;
+
+    @Value("${metadata.preload.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long begin = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            // 阶段一: 打开连接池
+            long start = System.currentTimeMillis();
+            int connections = warmUpConnectionPool(executor);
+            log.info("预热[连接池]完成, 连接数: {}, 耗时: {}ms", connections, System.currentTimeMillis() - start);
+
+            // 阶段二: 加载表配置
+            start = System.currentTimeMillis();
+            List<Map<String, Object>> tables = systemMapper.getAllAttributeData();
+            List<String> tableNames = new ArrayList<>();
+            for (Map<String, Object> row : tables) {
+                String table = MapUtil.getStr(row, "dbtable");
+                if (StrUtil.isNotEmpty(table)) {
+                    metadataCache.putTableConfig(table, row);
+                    tableNames.add(table);
+                }
+            }
+            log.info("预热[表配置]完成, 表数量: {}, 耗时: {}ms", tableNames.size(), System.currentTimeMillis() - start);
+
+            // 阶段三: 并行加载列属性与校验规则
+            start = System.currentTimeMillis();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (String table : tableNames) {
+                futures.add(CompletableFuture.runAsync(() -> preloadTable(table), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timeoutSeconds, TimeUnit.SECONDS);
+            log.info("预热[列属性/校验规则]完成, 耗时: {}ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("元数据预热失败, 将在首次访问时按需加载", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("元数据预热结束, 总耗时: {}ms", System.currentTimeMillis() - begin);
+    }
+
+    /**
+     * 加载单表的列属性与校验规则
+     */
+    private void preloadTable(String table) {
+        try {
+            metadataCache.getTableSchema(table);
+            metadataCache.getCheckRules(table);
+        } catch (Exception e) {
+            log.warn("预热表[{}]失败: {}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * 并发借出最小空闲数量的连接后统一归还,使连接池在就绪前建立全部最小连接
+     */
+    private int warmUpConnectionPool(ExecutorService executor) throws Exception {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return 0;
+        }
+        int minimumIdle = dataSource.unwrap(HikariDataSource.class).getMinimumIdle();
+        List<CompletableFuture<Connection>> futures = new ArrayList<>();
+        for (int i = 0; i < minimumIdle; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor));
+        }
+        List<Connection> connections = new ArrayList<>();
+        for (CompletableFuture<Connection> future : futures) {
+            try {
+                connections.add(future.get(timeoutSeconds, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                log.warn("预热连接失败: {}", e.getMessage());
+            }
+        }
+        int opened = connections.size();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        return opened;
+    }
+}
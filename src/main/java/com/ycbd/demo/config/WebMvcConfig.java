@@ -1,5 +1,6 @@
 package com.ycbd.demo.config;
 
+import com.ycbd.demo.interceptor.AdminInterceptor;
 import com.ycbd.demo.interceptor.LogoutInterceptor;
 import com.ycbd.demo.interceptor.ServiceInterceptorAspect;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
 
     private final ServiceInterceptorAspect serviceInterceptor;
     private final LogoutInterceptor logoutInterceptor;
+    private final AdminInterceptor adminInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -24,6 +26,10 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/common/login", "/api/common/register");
         
+        // 注册运维接口权限拦截器,在登录校验之后执行
+        registry.addInterceptor(adminInterceptor)
+                .addPathPatterns("/api/admin/**");
+        
         // 注册注销拦截器
         registry.addInterceptor(logoutInterceptor)
                 .addPathPatterns("/api/common/logout");
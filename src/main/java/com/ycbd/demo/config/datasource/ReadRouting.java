@@ -0,0 +1,160 @@
+package com.ycbd.demo.config.datasource;
+
+import com.ycbd.demo.interceptor.ServiceInterceptorAspect;
+import com.ycbd.demo.service.cache.BoundedCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 只读查询路由
+ * 列表、总数与详情查询通过 {@link #read(Supplier)} 执行,在未开启读写分离、处于事务中
+ * 或当前用户刚写入过数据(read-your-writes 窗口内)时仍走主库,其余情况路由到只读库。
+ * 同时记录最近写入过的表,供跨用户共享的结果(版本 ETag、列表与统计缓存)判断只读库是否可能尚未同步。
+ * 未开启 datasource.routing.enabled 时所有方法退化为直接执行
+ */
+@Component
+public class ReadRouting {
+
+    private static final ThreadLocal<String> READ_KEY = new ThreadLocal<>();
+    /** 由提交线程传递到异步线程的"必须走主库"标记 */
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final ReadWriteRoutingDataSource dataSource;
+    /** 最近写入过数据的用户,条目过期即离开 read-your-writes 窗口 */
+    private final BoundedCache<Integer, Boolean> recentWriters;
+    /** 最近写入过的表,条目过期即视为只读库已同步 */
+    private final BoundedCache<String, Boolean> recentTables;
+
+    public ReadRouting(ObjectProvider<ReadWriteRoutingDataSource> dataSource,
+            @Value("${datasource.routing.read-your-writes-ms:3000}") long readYourWritesMs,
+            @Value("${datasource.routing.max-tracked-users:10000}") int maxTrackedUsers) {
+        ReadWriteRoutingDataSource routing = dataSource.getIfAvailable();
+        this.dataSource = routing != null && routing.hasReplicas() ? routing : null;
+        this.recentWriters = new BoundedCache<>("recentWriters", maxTrackedUsers, readYourWritesMs);
+        this.recentTables = new BoundedCache<>("recentTables", maxTrackedUsers, readYourWritesMs);
+    }
+
+    /**
+     * 执行只读查询,满足条件时路由到只读库
+     */
+    public <T> T read(Supplier<T> query) {
+        if (dataSource == null || READ_KEY.get() != null
+                || TransactionSynchronizationManager.isActualTransactionActive() || isPrimaryRequired()) {
+            return query.get();
+        }
+        String key = dataSource.acquire();
+        READ_KEY.set(key);
+        try {
+            return query.get();
+        } finally {
+            READ_KEY.remove();
+            dataSource.release(key);
+        }
+    }
+
+    /**
+     * 在主库上执行查询,用于写入后需要立即读到最新数据的场景
+     */
+    public <T> T primary(Supplier<T> query) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 记录当前用户的写入,窗口期内该用户的读请求走主库
+     */
+    public void markWrite() {
+        Integer userId = ServiceInterceptorAspect.getCurrentUserId();
+        if (dataSource != null && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 记录表的写入,窗口期内只读库可能尚未同步该表
+     */
+    public void markWrite(String table) {
+        if (dataSource != null) {
+            recentTables.put(table, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 任一表是否处于写入后的窗口期,此时只读库上的结果可能落后于已递增的表版本号
+     */
+    public boolean isRecentlyWritten(Collection<String> tables) {
+        if (dataSource == null) {
+            return false;
+        }
+        for (String table : tables) {
+            if (recentTables.get(table) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 供线程池 TaskDecorator 使用,将提交线程的主库标记传递到执行线程
+     */
+    public Runnable decorate(Runnable task) {
+        boolean primaryRequired = isPrimaryRequired();
+        return () -> {
+            Boolean previous = PRIMARY_REQUIRED.get();
+            PRIMARY_REQUIRED.set(primaryRequired);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public Map<String, Object> stats() {
+        if (dataSource == null) {
+            return Map.of("enabled", false);
+        }
+        Map<String, Object> stats = dataSource.stats();
+        stats.put("enabled", true);
+        stats.put("recentWriters", recentWriters.size());
+        stats.put("recentTables", recentTables.size());
+        return stats;
+    }
+
+    static String currentReadKey() {
+        return READ_KEY.get();
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY_REQUIRED.remove();
+        } else {
+            PRIMARY_REQUIRED.set(previous);
+        }
+    }
+
+    /**
+     * 当前线程的读取是否必须走主库
+     */
+    public boolean isPrimaryRequired() {
+        if (dataSource == null) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            return true;
+        }
+        Integer userId = ServiceInterceptorAspect.getCurrentUserId();
+        return userId != null && recentWriters.get(userId) != null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ycbd.demo.config.datasource;
+
+import cn.hutool.core.util.StrUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置
+ * 主库沿用 spring.datasource(含 spring.datasource.hikari),只读库配置在 datasource.routing.replicas,
+ * 每个只读库可单独配置 hikari 参数,用户名密码未配置时沿用主库。
+ * 定义 DataSource Bean 后 Spring Boot 的默认数据源自动配置不再生效。
+ * 通过 datasource.routing.enabled=true 开启
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+            @Value("${datasource.routing.strategy:round-robin}") String strategy) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = build(properties, binder, "spring.datasource.hikari", "primary");
+
+        List<DataSourceProperties> replicaProperties = binder
+                .bind("datasource.routing.replicas", Bindable.listOf(DataSourceProperties.class))
+                .orElse(List.of());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            DataSourceProperties replica = replicaProperties.get(i);
+            if (StrUtil.isBlank(replica.getUrl())) {
+                throw new IllegalStateException("只读库未配置url: datasource.routing.replicas[" + i + "]");
+            }
+            if (replica.getUsername() == null) {
+                replica.setUsername(properties.getUsername());
+                replica.setPassword(properties.getPassword());
+            }
+            String name = "replica-" + i;
+            replicas.put(name, build(replica, binder, "datasource.routing.replicas[" + i + "].hikari", name));
+        }
+        log.info("读写分离已开启, 只读库数量: {}, 选择方式: {}", replicas.size(), strategy);
+        return new ReadWriteRoutingDataSource(primary, replicas, ReadWriteRoutingDataSource.Strategy.of(strategy));
+    }
+
+    private static HikariDataSource build(DataSourceProperties properties, Binder binder, String hikariPrefix,
+            String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        if (dataSource.getPoolName() == null) {
+            dataSource.setPoolName("routing-" + name);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ycbd.demo.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源
+ * 默认路由到主库;仅当当前线程处于 ReadRouting 开启的只读范围内时路由到选定的只读库。
+ * 只读库获取连接失败时退回主库,不影响查询
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    /**
+     * 只读库选择方式
+     */
+    public enum Strategy {
+        /** 轮询 */
+        ROUND_ROBIN,
+        /** 进行中请求最少 */
+        LEAST_IN_FLIGHT;
+
+        public static Strategy of(String value) {
+            return "least-in-flight".equalsIgnoreCase(value) || "LEAST_IN_FLIGHT".equalsIgnoreCase(value)
+                    ? LEAST_IN_FLIGHT : ROUND_ROBIN;
+        }
+    }
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final String[] replicaKeys;
+    private final AtomicInteger[] inFlight;
+    private final LongAdder[] routed;
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Strategy strategy) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaKeys = replicas.keySet().toArray(new String[0]);
+        this.inFlight = new AtomicInteger[replicaKeys.length];
+        this.routed = new LongAdder[replicaKeys.length];
+        for (int i = 0; i < replicaKeys.length; i++) {
+            inFlight[i] = new AtomicInteger();
+            routed[i] = new LongAdder();
+        }
+        this.strategy = strategy;
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = ReadRouting.currentReadKey();
+        return key == null ? PRIMARY : key;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) {
+                throw e;
+            }
+            fallbacks.increment();
+            log.warn("只读库获取连接失败, 改用主库: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    public boolean hasReplicas() {
+        return replicaKeys.length > 0;
+    }
+
+    /**
+     * 选择只读库并计入进行中请求,须与 {@link #release(String)} 成对调用
+     *
+     * @return 只读库标识,未配置只读库时返回null
+     */
+    String acquire() {
+        if (replicaKeys.length == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicaKeys.length);
+        int index = start;
+        if (strategy == Strategy.LEAST_IN_FLIGHT) {
+            // 从轮询位置开始比较,进行中请求数相同时仍然均匀分布
+            for (int i = 1; i < replicaKeys.length; i++) {
+                int candidate = (start + i) % replicaKeys.length;
+                if (inFlight[candidate].get() < inFlight[index].get()) {
+                    index = candidate;
+                }
+            }
+        }
+        inFlight[index].incrementAndGet();
+        routed[index].increment();
+        return replicaKeys[index];
+    }
+
+    void release(String key) {
+        for (int i = 0; i < replicaKeys.length; i++) {
+            if (replicaKeys[i].equals(key)) {
+                inFlight[i].decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strategy", strategy);
+        stats.put("fallbacks", fallbacks.sum());
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < replicaKeys.length; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", replicaKeys[i]);
+            item.put("inFlight", inFlight[i].get());
+            item.put("routed", routed[i].sum());
+            list.add(item);
+        }
+        stats.put("replicas", list);
+        return stats;
+    }
+
+    /**
+     * 关闭主库与只读库连接池
+     */
+    public void close() {
+        List<DataSource> all = new ArrayList<>(replicas.values());
+        all.add(primary);
+        for (DataSource dataSource : all) {
+            if (dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) dataSource).close();
+                } catch (Exception e) {
+                    log.warn("关闭数据源失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
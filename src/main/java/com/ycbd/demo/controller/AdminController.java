@@ -0,0 +1,148 @@
+package com.ycbd.demo.controller;
+
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.Tools.ResultData;
+import com.ycbd.demo.config.datasource.ReadRouting;
+import com.ycbd.demo.service.BaseService;
+import com.ycbd.demo.service.ETagService;
+import com.ycbd.demo.service.IndexAdvisorService;
+import com.ycbd.demo.service.ListCountService;
+import com.ycbd.demo.service.OptionsService;
+import com.ycbd.demo.service.SqlWhereBuilder;
+import com.ycbd.demo.service.cache.DictionaryCache;
+import com.ycbd.demo.service.cache.ListResultCache;
+import com.ycbd.demo.service.cache.MetadataCache;
+import com.ycbd.demo.service.cache.RowCache;
+import com.ycbd.demo.service.search.NgramIndexService;
+import com.ycbd.demo.service.stats.SqlStatsRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运维管理控制器
+ * 提供缓存统计、缓存清理、SQL 统计、索引建议等运维接口,仅管理员角色可访问(见 AdminInterceptor)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final MetadataCache metadataCache;
+    private final BaseService baseService;
+    private final ListCountService listCountService;
+    private final ListResultCache listResultCache;
+    private final RowCache rowCache;
+    private final IndexAdvisorService indexAdvisorService;
+    private final SqlStatsRegistry sqlStatsRegistry;
+    private final NgramIndexService ngramIndexService;
+    private final ReadRouting readRouting;
+    private final ETagService etagService;
+    private final DictionaryCache dictionaryCache;
+    private final OptionsService optionsService;
+
+    /**
+     * 缓存统计接口
+     *
+     * @return 各缓存的命中/未命中等统计信息
+     */
+    @GetMapping("/cache/stats")
+    public ResultData<Map<String, Object>> cacheStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("metadata", metadataCache.stats());
+        result.put("count", listCountService.stats());
+        result.put("list", listResultCache.stats());
+        result.put("row", rowCache.stats());
+        result.put("whereTemplate", SqlWhereBuilder.stats());
+        result.put("ngram", ngramIndexService.stats());
+        result.put("singleFlight", baseService.singleFlightStats());
+        result.put("etag", etagService.stats());
+        result.put("dict", dictionaryCache.stats());
+        result.put("options", optionsService.stats());
+        return ResultData.success(result);
+    }
+
+    /**
+     * 缓存清理接口
+     *
+     * @param table 表名(可选),为空时清理全部元数据缓存、列表结果缓存、行缓存与下拉选项缓存,并重新加载数据字典
+     * @return 清理结果
+     */
+    @PostMapping("/cache/evict")
+    public ResultData<Map<String, Object>> evictCache(@RequestParam(required = false) String table) {
+        if (StrUtil.isEmpty(table)) {
+            metadataCache.invalidateAll();
+            listResultCache.invalidateAll();
+            rowCache.invalidateAll();
+            dictionaryCache.reload();
+            optionsService.invalidateAll();
+        } else {
+            metadataCache.invalidate(table);
+            listResultCache.invalidate(table);
+            rowCache.invalidateTable(table);
+            optionsService.invalidate(table);
+        }
+        log.info("手动清理元数据缓存: {}", StrUtil.isEmpty(table) ? "全部" : table);
+        return ResultData.success(new HashMap<>());
+    }
+
+    /**
+     * 索引建议接口
+     * 对每个查询字段与默认排序/关联配置执行 EXPLAIN,报告全表扫描的条件并给出建议索引
+     *
+     * @param table 表名(可选),为空时分析全部已配置的表
+     * @return 各表的分析报告
+     */
+    @GetMapping("/index-advisor")
+    public ResultData<List<Map<String, Object>>> indexAdvisor(@RequestParam(required = false) String table) {
+        return ResultData.success(indexAdvisorService.analyze(table));
+    }
+
+    /**
+     * SQL 统计接口
+     *
+     * @param sort 排序维度: total(总耗时,默认)/count/max/avg/rows
+     * @param limit 返回条数
+     * @return 按语句指纹汇总的调用次数、耗时、耗时分布与行数
+     */
+    @GetMapping("/sql/stats")
+    public ResultData<List<Map<String, Object>>> sqlStats(@RequestParam(defaultValue = "total") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResultData.success(sqlStatsRegistry.snapshot(sort, limit));
+    }
+
+    /**
+     * 慢查询接口
+     *
+     * @return 最近的慢查询;绑定值默认只含类型,开启 sql.stats.log-parameters 时含脱敏后的实际值
+     */
+    @GetMapping("/sql/slow")
+    public ResultData<List<Map<String, Object>>> slowQueries() {
+        return ResultData.success(sqlStatsRegistry.slowQueries());
+    }
+
+    /**
+     * 读写分离状态接口
+     *
+     * @return 只读库选择方式、各只读库进行中请求数与路由次数、回退主库次数
+     */
+    @GetMapping("/datasource/stats")
+    public ResultData<Map<String, Object>> datasourceStats() {
+        return ResultData.success(readRouting.stats());
+    }
+
+    /**
+     * 重置 SQL 统计与慢查询记录
+     */
+    @PostMapping("/sql/stats/reset")
+    public ResultData<Map<String, Object>> resetSqlStats() {
+        sqlStatsRegistry.reset();
+        log.info("重置 SQL 统计");
+        return ResultData.success(new HashMap<>());
+    }
+}
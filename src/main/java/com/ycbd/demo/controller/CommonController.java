@@ -1,11 +1,18 @@
 package com.ycbd.demo.controller;
 
+import com.ycbd.demo.service.AggregateService;
 import com.ycbd.demo.service.CommonService;
+import com.ycbd.demo.service.ETagService;
+import com.ycbd.demo.service.ExportService;
+import com.ycbd.demo.service.OptionsService;
 import com.ycbd.demo.Tools.ResultData;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -21,22 +28,82 @@ public class CommonController {
     
     // 通用服务层接口
     private final CommonService commonService;
+    private final ExportService exportService;
+    private final AggregateService aggregateService;
+    private final ETagService etagService;
+    private final OptionsService optionsService;
     
     /**
      * 通用列表查询接口
      * 支持分页查询和条件过滤
+     * 传入 pageMode=keyset 时使用游标分页: 首页不传 cursor,之后传上一页返回的 nextCursor,
+     * 此时 pageIndex 被忽略,排序默认取 table_attribute.sort,只能按目标表的单列排序(可再跟同方向的主键),
+     * 按关联表的列或多列排序时返回 400;排序列与主键会自动加入查询列。
+     * countMode 可选 exact/cached/estimated/none,未传时取 table_attribute.countMode,
+     * none 时不返回 total,改为返回 hasMore;总数统计失败或超时时 totalAvailable 为 false
+     * columns 未传时只查询列表字段与主键,大字段需通过详情接口获取;传入时须为已配置的非大字段
+     * format=rows 时返回 columns(列名数组)与 rows(每行一个值数组),format=columns 时返回 columns 与
+     * values(每列一个值数组),不传时 items 中每行为一个对象
+     * explain=true(需开启 list.explain.enabled)时另返回 explain: 最终 SQL、绑定值、执行计划与耗时
+     * 成功响应附带 ETag,请求头 If-None-Match 与之一致时返回 304
      * 
      * @param pageIndex 页码,从1开始
      * @param pageSize 每页记录数
      * @param params 查询参数,必须包含targetTable字段指定目标表
-     * @return 查询结果,包含数据列表和总记录数
+     * @return 查询结果,包含数据列表和总记录数;游标分页时另含 nextCursor 和 hasMore
      */
     @GetMapping("/list")
     public ResultData<Map<String, Object>> list(
             @RequestParam(defaultValue = "1") int pageIndex,
             @RequestParam(defaultValue = "10") int pageSize,
-            @RequestParam Map<String, Object> params) {
-        return commonService.getList(pageIndex, pageSize, params);
+            @RequestParam Map<String, Object> params,
+            WebRequest webRequest) {
+        if ("true".equalsIgnoreCase(String.valueOf(params.get("explain")))) {
+            return commonService.getList(pageIndex, pageSize, params);
+        }
+        return etagService.handleVersioned(webRequest, params,
+                () -> commonService.getList(pageIndex, pageSize, params));
+    }
+    
+    /**
+     * 通用聚合查询接口
+     * 过滤条件与列表查询一致,按 groupBy 分组计算聚合值,只返回聚合后的行。
+     * aggregates 格式为 函数:字段,函数可选 count/sum/avg/min/max,如 count:*,sum:amount;
+     * 结果中聚合项的键为 函数_字段(count:* 为 count),sortBy 可使用分组字段或该键排序
+     * 
+     * @param params 查询参数,必须包含targetTable字段;groupBy 未传时取 table_attribute.groupby
+     * @return 聚合结果 items,分组数超过上限时 truncated 为 true
+     */
+    @GetMapping("/aggregate")
+    public ResultData<Map<String, Object>> aggregate(@RequestParam Map<String, Object> params) {
+        return aggregateService.aggregate(params);
+    }
+    
+    /**
+     * 下拉选项接口
+     * 按 autoselect 配置一次获取多个下拉数据源的选项,供表单中 column_attribute.autoSelectId 引用的字段使用。
+     * 选项缓存于服务端,数据源表经通用接口写入后失效;每个数据源返回的条数有上限,
+     * truncated 为 true 时应传 prefix 按名称前缀继续筛选
+     * 成功响应附带 ETag,请求头 If-None-Match 与之一致时返回 304
+     * 
+     * @param params ids 数据源id,逗号分隔;prefix 名称前缀(可选);limit 每个数据源的最多条数(可选)
+     * @return 以数据源id为键的选项,每个含 items(id/label)与 truncated
+     */
+    @GetMapping("/options")
+    public ResultData<Map<String, Object>> options(@RequestParam Map<String, Object> params, WebRequest webRequest) {
+        return etagService.handle(webRequest, null, () -> optionsService.getOptions(params));
+    }
+    
+    /**
+     * 通用数据导出接口
+     * 过滤条件与列表查询一致,以游标流式写出全部匹配行,仅包含 isExport=1 的字段
+     * 
+     * @param params 查询参数,必须包含targetTable字段;format 可选 csv(默认)/ndjson
+     * @param response 响应,直接写入导出内容
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam Map<String, Object> params, HttpServletResponse response) throws IOException {
+        exportService.export(params, response);
     }
     
     /**
@@ -72,8 +139,8 @@ public class CommonController {
      * @return 记录详情
      */
     @GetMapping("/detail")
-    public ResultData<Map<String, Object>> detail(@RequestParam Map<String, Object> params) {
-        return commonService.getDetail(params);
+    public ResultData<Map<String, Object>> detail(@RequestParam Map<String, Object> params, WebRequest webRequest) {
+        return etagService.handleVersioned(webRequest, params, () -> commonService.getDetail(params));
     }
     
     /**
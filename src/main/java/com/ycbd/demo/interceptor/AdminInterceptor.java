@@ -0,0 +1,59 @@
+package com.ycbd.demo.interceptor;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 运维接口权限拦截器
+ * 运维接口(/api/admin/**)可清理缓存、重置统计、对全部表执行 EXPLAIN、查看数据源拓扑,
+ * 仅允许令牌中的角色包含 admin.role-ids 所配置角色的用户访问,须在登录校验拦截器之后执行
+ */
+@Slf4j
+@Component
+public class AdminInterceptor implements HandlerInterceptor {
+
+    private final Set<String> adminRoleIds;
+
+    public AdminInterceptor(@Value("${admin.role-ids:1}") String adminRoleIds) {
+        this.adminRoleIds = new HashSet<>(StrUtil.splitTrim(adminRoleIds, ","));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        String roles = ServiceInterceptorAspect.getCurrentRoles();
+        if (isAdmin(roles)) {
+            return true;
+        }
+        log.warn("用户[{}]无权访问运维接口: {}", ServiceInterceptorAspect.getCurrentUserId(), request.getRequestURI());
+        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(JSONUtil.toJsonStr(Map.of("code", 403, "message", "无权访问运维接口")));
+        return false;
+    }
+
+    /**
+     * 角色以逗号分隔,任一角色为管理员角色即视为管理员
+     */
+    private boolean isAdmin(String roles) {
+        if (StrUtil.isBlank(roles)) {
+            return false;
+        }
+        for (String role : StrUtil.splitTrim(roles, ",")) {
+            if (adminRoleIds.contains(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ycbd.demo.interceptor;
+
+import com.ycbd.demo.service.MappedSqlSupport;
+import com.ycbd.demo.service.stats.SqlStatsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * SQL 统计拦截器
+ * 拦截 SystemMapper 语句在 JDBC 上的执行(含结果集处理),按语句指纹记录耗时与行数,交由 SqlStatsRegistry 汇总。
+ * 直接使用 StatementHandler 中已生成的 BoundSql,不重复解析动态 SQL;绑定值只在慢查询时才取出。
+ * 列式查询经 JdbcTemplate 执行,不经过本拦截器,由 BaseService.queryColumnar 自行记录
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts({
+    @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+    @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+    @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class SqlStatsInterceptor implements Interceptor {
+
+    private final SqlStatsRegistry sqlStatsRegistry;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!sqlStatsRegistry.isEnabled()) {
+            return invocation.proceed();
+        }
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        MetaObject metaObject = SystemMetaObject.forObject(handler);
+        // RoutingStatementHandler 将实际处理委托给 delegate
+        MappedStatement statement = (MappedStatement) metaObject.getValue("delegate.mappedStatement");
+        if (!statement.getId().startsWith(MappedSqlSupport.SYSTEM_MAPPER)) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = false;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            failed = true;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            BoundSql boundSql = handler.getBoundSql();
+            Object parameter = handler.getParameterHandler().getParameterObject();
+            sqlStatsRegistry.record(statement.getId(), boundSql.getSql(),
+                    () -> MappedSqlSupport.getParameterValues(statement.getConfiguration(), boundSql, parameter),
+                    elapsed, rowCount(result), failed);
+        }
+    }
+
+    /**
+     * 查询返回行数或更新影响行数,游标查询无法预知行数
+     */
+    private static long rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return 0;
+    }
+}
@@ -2,6 +2,10 @@ package com.ycbd.demo.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import com.ycbd.demo.model.ColumnAttribute;
+
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +28,12 @@ public interface SystemMapper {
      */
     List<Map<String, Object>> getAttributeData(@Param("table") String table);
     
+    /**
+     * 获取全部表的属性数据
+     * @return 属性数据列表
+     */
+    List<Map<String, Object>> getAllAttributeData();
+    
     /**
      * 分页查询数据(基础版)
      * @param table 表名
@@ -120,6 +130,27 @@ public interface SystemMapper {
      */
     List<Map<String, Object>> findColumnCheckRules(String table);
     
+    /**
+     * 流式查询数据,需在事务内遍历,遍历结束后关闭
+     * @param table 表名
+     * @param columns 查询列
+     * @param joinString 关联语句
+     * @param whereStr 条件语句
+     * @param sortByAndType 排序语句
+     * @param groupByString 分组语句
+     * @param params 绑定参数
+     * @return 结果游标
+     */
+    Cursor<Map<String, Object>> streamItemsData(
+        @Param("table") String table,
+        @Param("columns") String columns,
+        @Param("joinString") String joinString,
+        @Param("whereStr") String whereStr,
+        @Param("sortByAndType") String sortByAndType,
+        @Param("groupByString") String groupByString,
+        @Param("params") Map<String, Object> params
+    );
+    
     /**
      * 获取数据总数
      * @param table 表名
@@ -132,6 +163,38 @@ public interface SystemMapper {
         @Param("joinString") String joinString,
         @Param("whereString") String whereString
     );
+
+    /**
+     * 获取数据总数(参数化条件)
+     * @param table 表名
+     * @param joinString 关联语句
+     * @param whereString 条件语句,值以 #{params.xxx} 绑定
+     * @param params 绑定参数
+     * @return 数据总数
+     */
+    int getDataCount(
+        @Param("table") String table,
+        @Param("joinString") String joinString,
+        @Param("whereString") String whereString,
+        @Param("params") Map<String, Object> params
+    );
+
+    /**
+     * 获取数据总数(参数化条件,限定执行时间)
+     * @param table 表名
+     * @param joinString 关联语句
+     * @param whereString 条件语句,值以 #{params.xxx} 绑定
+     * @param params 绑定参数
+     * @param maxExecutionMs 最长执行时间(毫秒),超时后由数据库中止统计并抛出异常,为null时不限制
+     * @return 数据总数
+     */
+    int getDataCount(
+        @Param("table") String table,
+        @Param("joinString") String joinString,
+        @Param("whereString") String whereString,
+        @Param("params") Map<String, Object> params,
+        @Param("maxExecutionMs") Long maxExecutionMs
+    );
     
     /**
      * 获取列属性配置
@@ -144,6 +207,13 @@ public interface SystemMapper {
         @Param("attributeType") String attributeType
     );
     
+    /**
+     * 获取表的全部列属性(用于构建表结构)
+     * @param table 表名
+     * @return 列属性列表
+     */
+    List<ColumnAttribute> getColumnAttributeList(@Param("table") String table);
+    
     /**
      * 批量插入数据
      * @param table 表名
@@ -201,6 +271,19 @@ public interface SystemMapper {
      */
     int countByWhere(String table, String whereString);
 
+    /**
+     * 根据参数化条件语句统计数据
+     * @param table 表名
+     * @param whereString 条件语句,可通过 #{params.xxx} 引用参数
+     * @param params 条件参数
+     * @return 统计结果
+     */
+    int countByWhere(
+        @Param("table") String table,
+        @Param("whereString") String whereString,
+        @Param("params") Map<String, Object> params
+    );
+
     /**
      * 获取指定数据库的schema信息
      * @param dbsrc 数据源
@@ -208,4 +291,79 @@ public interface SystemMapper {
      * @return schema信息列表
      */
     List<Map<String, Object>> selectSchema(String dbsrc, String schema_name);
+
+    /**
+     * 递增指定表的元数据版本号,不存在时插入
+     * @param table 业务表名
+     * @param updateTime 更新时间
+     * @return 影响行数
+     */
+    int bumpMetadataVersion(
+        @Param("table") String table,
+        @Param("updateTime") long updateTime
+    );
+
+    /**
+     * 获取全部表的元数据版本号
+     * @return 版本列表(table_name, version)
+     */
+    List<Map<String, Object>> getMetadataVersions();
+
+    /**
+     * 获取查询的执行计划,用于估算结果行数
+     * @param table 表名
+     * @param joinString 关联语句
+     * @param whereString 条件语句
+     * @param params 条件参数
+     * @return 执行计划
+     */
+    List<Map<String, Object>> explainRows(
+        @Param("table") String table,
+        @Param("joinString") String joinString,
+        @Param("whereString") String whereString,
+        @Param("params") Map<String, Object> params
+    );
+
+    /**
+     * 获取表的估算行数(information_schema.TABLES.TABLE_ROWS)
+     * @param table 表名
+     * @return 估算行数
+     */
+    Long getTableRowEstimate(@Param("table") String table);
+
+    /**
+     * 获取列表查询的执行计划,参数与 getItemsData 一致
+     * @return 执行计划
+     */
+    List<Map<String, Object>> explainItemsData(
+        @Param("table") String table,
+        @Param("pageIndex") int pageIndex,
+        @Param("pageSize") int pageSize,
+        @Param("columns") String columns,
+        @Param("joinString") String joinString,
+        @Param("whereStr") String whereStr,
+        @Param("sortByAndType") String sortByAndType,
+        @Param("groupByString") String groupByString,
+        @Param("params") Map<String, Object> params
+    );
+
+    /**
+     * 获取表的索引列(information_schema.STATISTICS)
+     * @param table 表名
+     * @return 索引列列表(INDEX_NAME, COLUMN_NAME, SEQ_IN_INDEX, NON_UNIQUE)
+     */
+    List<Map<String, Object>> getTableIndexes(@Param("table") String table);
+
+    /**
+     * 获取全部启用的字典项
+     * @return 字典项列表(classcode, item_value, item_label),按字典代码与排序号排列
+     */
+    List<Map<String, Object>> getDictItems();
+
+    /**
+     * 获取启用的下拉数据源配置
+     * @param id autoselect 主键
+     * @return 配置,不存在或未启用时返回null
+     */
+    Map<String, Object> getAutoSelect(@Param("id") int id);
 }
@@ -0,0 +1,109 @@
+package com.ycbd.demo.model;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 编译后的业务校验规则
+ * 由 column_check_property 的一行转换而来,校验模式、条件模板与范围参数在构建时一次性解析
+ */
+@Getter
+public class CheckRule {
+
+    /** 条件模板中绑定校验值的参数名 */
+    public static final String VALUE_PARAM = "value";
+
+    /**
+     * 校验模式
+     */
+    public enum Mode {
+        /** 存在性验证 */
+        IS_EXIT("isExit"),
+        /** 不存在性验证 */
+        IS_NOT_EXIT("isNotExit"),
+        /** 多字段重复验证 */
+        MUTI_REPEAT("MutiReapeat"),
+        /** 范围验证 */
+        IS_RANG("isRang"),
+        UNKNOWN("");
+
+        private static final Map<String, Mode> BY_CODE = new HashMap<>();
+
+        static {
+            for (Mode mode : values()) {
+                BY_CODE.put(mode.code, mode);
+            }
+        }
+
+        private final String code;
+
+        Mode(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public static Mode of(String code) {
+            return code == null ? UNKNOWN : BY_CODE.getOrDefault(code, UNKNOWN);
+        }
+    }
+
+    private final Mode mode;
+    /** 原始校验模式,用于日志输出 */
+    private final String modeName;
+    private final String column;
+    /** 多字段校验时拆分后的字段名 */
+    private final String[] columns;
+    private final String targetTable;
+    private final String errorMsg;
+    /** 参数化条件模板,校验值以 #{params.value} 绑定 */
+    private final String whereTemplate;
+    private final Double min;
+    private final Double max;
+
+    private CheckRule(Map<String, Object> row) {
+        this.modeName = MapUtil.getStr(row, "check_mode");
+        this.mode = Mode.of(modeName);
+        this.column = MapUtil.getStr(row, "check_column");
+        this.columns = column == null ? new String[0]
+                : Arrays.stream(column.split(",")).map(String::trim).toArray(String[]::new);
+        this.targetTable = MapUtil.getStr(row, "target_table");
+        this.errorMsg = MapUtil.getStr(row, "errorMsg");
+        this.whereTemplate = compileWhere(MapUtil.getStr(row, "whereStr"), column);
+
+        JSONObject params = parseParams(MapUtil.getStr(row, "params"));
+        this.min = params == null ? null : params.getDouble("min");
+        this.max = params == null ? null : params.getDouble("max");
+    }
+
+    public static CheckRule of(Map<String, Object> row) {
+        return new CheckRule(row);
+    }
+
+    /**
+     * 将 whereStr 中的 %s 占位符替换为参数绑定,未配置条件时按校验字段等值匹配
+     */
+    private static String compileWhere(String whereStr, String column) {
+        String binding = "#{params." + VALUE_PARAM + "}";
+        if (StrUtil.isBlank(whereStr)) {
+            return column == null ? null : "`" + column + "` = " + binding;
+        }
+        return whereStr.replace("%s", binding);
+    }
+
+    private static JSONObject parseParams(String params) {
+        if (StrUtil.isBlank(params) || !JSONUtil.isTypeJSONObject(params)) {
+            return null;
+        }
+        return JSONUtil.parseObj(params);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ycbd.demo.model;
+
+import com.ycbd.demo.Tools.QueryRuleEnum;
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * 编译后的列结构
+ * 由 ColumnAttribute 转换而来,构建后不可变
+ */
+@Getter
+public class ColumnSchema {
+
+    private static final Set<String> NUMERIC_TYPES = Set.of(
+        "int", "integer", "bigint", "tinyint", "smallint", "mediumint", "decimal", "double", "float", "numeric");
+
+    private static final Set<String> LARGE_TYPES = Set.of(
+        "text", "mediumtext", "longtext", "blob", "mediumblob", "longblob", "json");
+
+    /** 内容长度超过该值的列视为大字段 */
+    private static final int LARGE_CONTENT_LEN = 1024;
+
+    /** 字段名 */
+    private final String name;
+    /** 显示名称 */
+    private final String label;
+    /** 字段类型(小写) */
+    private final String fieldType;
+    /** 控件类型 */
+    private final String showType;
+    /** 查询匹配方式 */
+    private final QueryRuleEnum queryRule;
+    /** 是否数值类型 */
+    private final boolean numeric;
+    /** 字段长度 */
+    private final int len;
+    /** 内容长度 */
+    private final int contentLen;
+    /** 是否大字段(文本/二进制类型或内容长度较大),列表查询不加载 */
+    private final boolean large;
+    private final boolean primary;
+    private final boolean required;
+    private final boolean editable;
+    private final boolean searchable;
+    private final boolean showInList;
+    private final boolean exportable;
+    /** 字典代码 */
+    private final String classcode;
+    /** 下拉框属性 */
+    private final Integer autoSelectId;
+    private final int orderNo;
+    private final int searchOrderNo;
+    private final int editOrderNo;
+
+    private ColumnSchema(ColumnAttribute attr) {
+        this.name = attr.getName();
+        this.label = attr.getPagename();
+        this.fieldType = attr.getFieldType() == null ? null : attr.getFieldType().trim().toLowerCase();
+        this.showType = attr.getShowType();
+        this.queryRule = resolveQueryRule(attr.getQueryType());
+        this.numeric = fieldType != null && NUMERIC_TYPES.contains(fieldType);
+        this.len = intValue(attr.getLen());
+        this.contentLen = intValue(attr.getContentLen());
+        this.large = (fieldType != null && LARGE_TYPES.contains(fieldType)) || contentLen > LARGE_CONTENT_LEN;
+        this.primary = intValue(attr.getIsPri()) == 1;
+        this.required = intValue(attr.getIsRequired()) == 1;
+        this.editable = intValue(attr.getEditFlag()) == 1;
+        this.searchable = intValue(attr.getSearchFlag()) == 1;
+        this.showInList = intValue(attr.getIsShowInList()) == 1;
+        this.exportable = intValue(attr.getIsExport()) == 1;
+        this.classcode = attr.getClasscode();
+        this.autoSelectId = attr.getAutoSelectId();
+        this.orderNo = intValue(attr.getOrderNo());
+        this.searchOrderNo = intValue(attr.getSearchOrderNo());
+        this.editOrderNo = intValue(attr.getEditOrderNo());
+    }
+
+    public static ColumnSchema of(ColumnAttribute attr) {
+        return new ColumnSchema(attr);
+    }
+
+    private static QueryRuleEnum resolveQueryRule(String queryType) {
+        if (StrUtil.isBlank(queryType)) {
+            return QueryRuleEnum.EQ;
+        }
+        QueryRuleEnum rule = QueryRuleEnum.getByValue(queryType.toLowerCase());
+        return rule == null ? QueryRuleEnum.EQ : rule;
+    }
+
+    private static int intValue(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
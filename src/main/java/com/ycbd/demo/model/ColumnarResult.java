@@ -0,0 +1,77 @@
+package com.ycbd.demo.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式查询结果
+ * 列名只保存一份,每行以值数组表示,顺序与列名一致
+ */
+@Getter
+public class ColumnarResult {
+
+    private final List<String> columns;
+    private final List<Object[]> rows;
+
+    public ColumnarResult(List<String> columns, List<Object[]> rows) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rows = rows;
+    }
+
+    /**
+     * 只保留前 size 行
+     */
+    public ColumnarResult limit(int size) {
+        return rows.size() <= size ? this : new ColumnarResult(columns, new ArrayList<>(rows.subList(0, size)));
+    }
+
+    /**
+     * 只读视图,行列表不可修改
+     */
+    public ColumnarResult readOnly() {
+        return new ColumnarResult(columns, Collections.unmodifiableList(rows));
+    }
+
+    /**
+     * 复制行列表及每行的值数组,副本可自由修改
+     */
+    public ColumnarResult copy() {
+        List<Object[]> copied = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            copied.add(row.clone());
+        }
+        return new ColumnarResult(columns, copied);
+    }
+
+    /**
+     * 将指定行转换为按列名索引的 Map
+     */
+    public Map<String, Object> rowAsMap(int index) {
+        Object[] row = rows.get(index);
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            map.put(columns.get(i), row[i]);
+        }
+        return map;
+    }
+
+    /**
+     * 转为按列排列的数组,第 i 个数组为第 i 列的全部值
+     */
+    public List<Object[]> toColumnArrays() {
+        List<Object[]> result = new ArrayList<>(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            Object[] values = new Object[rows.size()];
+            for (int r = 0; r < rows.size(); r++) {
+                values[r] = rows.get(r)[c];
+            }
+            result.add(values);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ycbd.demo.model;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 编译后的表结构
+ * 由表的全部 column_attribute 行一次性构建,提供字段名到列的O(1)索引、
+ * 主键、审计字段标记以及查询/编辑/列表字段集合,构建后不可变
+ */
+@Getter
+public class TableSchema {
+
+    private final String table;
+    /** 全部列,按 OrderNo 排序 */
+    private final List<ColumnSchema> columns;
+    /** 查询列(searchFlag=1 且非主键),按 searchOrderNo 排序 */
+    private final List<ColumnSchema> searchColumns;
+    /** 编辑列(editFlag=1),按 editOrderNo 排序 */
+    private final List<ColumnSchema> editColumns;
+    /** 列表列(IsShowInList=1 或主键),按 OrderNo 排序 */
+    private final List<ColumnSchema> listColumns;
+    /** 导出列(isExport=1),按 OrderNo 排序 */
+    private final List<ColumnSchema> exportColumns;
+    /** 字典列(配置了 classcode),按 OrderNo 排序 */
+    private final List<ColumnSchema> dictColumns;
+    /** 主键列名 */
+    private final String primaryKey;
+
+    @Getter(AccessLevel.NONE)
+    private final boolean hasCreateTime;
+    @Getter(AccessLevel.NONE)
+    private final boolean hasUpdateTime;
+    @Getter(AccessLevel.NONE)
+    private final boolean hasCreateBy;
+    @Getter(AccessLevel.NONE)
+    private final boolean hasUpdateBy;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ColumnSchema> columnIndex;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ColumnSchema> searchIndex;
+
+    private TableSchema(String table, List<ColumnAttribute> attributes) {
+        this.table = table;
+        List<ColumnSchema> all = attributes.stream().map(ColumnSchema::of).collect(Collectors.toList());
+        this.columns = sorted(all, c -> true, ColumnSchema::getOrderNo);
+        this.searchColumns = sorted(all, c -> c.isSearchable() && !c.isPrimary(), ColumnSchema::getSearchOrderNo);
+        this.editColumns = sorted(all, ColumnSchema::isEditable, ColumnSchema::getEditOrderNo);
+        this.listColumns = sorted(all, c -> c.isShowInList() || c.isPrimary(), ColumnSchema::getOrderNo);
+        this.exportColumns = sorted(all, ColumnSchema::isExportable, ColumnSchema::getOrderNo);
+        this.dictColumns = sorted(all, c -> StrUtil.isNotBlank(c.getClasscode()), ColumnSchema::getOrderNo);
+        this.columnIndex = index(columns);
+        this.searchIndex = index(searchColumns);
+        this.primaryKey = columns.stream().filter(ColumnSchema::isPrimary)
+                .map(ColumnSchema::getName).findFirst().orElse(null);
+        this.hasCreateTime = columnIndex.containsKey("create_time");
+        this.hasUpdateTime = columnIndex.containsKey("update_time");
+        this.hasCreateBy = columnIndex.containsKey("create_by");
+        this.hasUpdateBy = columnIndex.containsKey("update_by");
+    }
+
+    /**
+     * 由列属性构建表结构
+     */
+    public static TableSchema of(String table, List<ColumnAttribute> attributes) {
+        return new TableSchema(table, attributes);
+    }
+
+    /**
+     * 按字段名获取列
+     */
+    public ColumnSchema getColumn(String name) {
+        return columnIndex.get(name);
+    }
+
+    /**
+     * 按字段名获取查询列,非查询字段返回null
+     */
+    public ColumnSchema getSearchColumn(String name) {
+        return searchIndex.get(name);
+    }
+
+    public boolean hasCreateTime() {
+        return hasCreateTime;
+    }
+
+    public boolean hasUpdateTime() {
+        return hasUpdateTime;
+    }
+
+    public boolean hasCreateBy() {
+        return hasCreateBy;
+    }
+
+    public boolean hasUpdateBy() {
+        return hasUpdateBy;
+    }
+
+    public boolean hasColumn(String name) {
+        return columnIndex.containsKey(name);
+    }
+
+    public boolean isEmpty() {
+        return columns.isEmpty();
+    }
+
+    private static List<ColumnSchema> sorted(List<ColumnSchema> all, Predicate<ColumnSchema> filter,
+            ToIntFunction<ColumnSchema> order) {
+        return Collections.unmodifiableList(all.stream()
+                .filter(filter)
+                .sorted(Comparator.comparingInt(order))
+                .collect(Collectors.toList()));
+    }
+
+    private static Map<String, ColumnSchema> index(List<ColumnSchema> list) {
+        Map<String, ColumnSchema> map = new LinkedHashMap<>();
+        for (ColumnSchema column : list) {
+            map.putIfAbsent(column.getName(), column);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
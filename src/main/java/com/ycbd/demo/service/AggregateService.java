@@ -0,0 +1,175 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.Tools.ResultData;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.search.NgramIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 服务端聚合查询
+ * 按分组字段计算 count/sum/avg/min/max,过滤条件与列表查询一致,只返回聚合后的行。
+ * 分组字段与聚合字段均须为 column_attribute 中已配置的非大字段,sum/avg 仅支持数值字段
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AggregateService {
+
+    private static final Set<String> FUNCTIONS = Set.of("count", "sum", "avg", "min", "max");
+
+    private final BaseService baseService;
+    private final NgramIndexService ngramIndexService;
+
+    @Value("${list.aggregate.max-groups:10000}")
+    private int maxGroups;
+
+    /**
+     * 聚合查询
+     *
+     * @param params 查询参数: targetTable 必填;groupBy 分组字段,逗号分隔,默认取 table_attribute.groupby;
+     *               aggregates 聚合项,格式 函数:字段,逗号分隔,默认 count:*;
+     *               sortBy 排序,可用分组字段或聚合项别名(如 sum_amount DESC);pageSize 最多返回的分组数
+     * @return items 为聚合结果,聚合项别名为 函数_字段(count:* 为 count);分组数超过上限时 truncated 为 true
+     */
+    public ResultData<Map<String, Object>> aggregate(Map<String, Object> params) {
+        try {
+            String targetTable = MapUtil.getStr(params, "targetTable");
+            if (StrUtil.isEmpty(targetTable)) {
+                return ResultData.fail(400, "targetTable不能为空");
+            }
+            TableSchema schema = baseService.getTableSchema(targetTable);
+            if (schema.isEmpty()) {
+                return ResultData.fail(400, "该表未配置字段属性: " + targetTable);
+            }
+            Map<String, Object> tableConfig = baseService.getTableConfig(targetTable);
+
+            // 分组字段
+            List<String> groupColumns = new ArrayList<>();
+            String groupBy = MapUtil.getStr(params, "groupBy", MapUtil.getStr(tableConfig, "groupby"));
+            for (String item : StrUtil.splitTrim(groupBy, ",")) {
+                String name = unqualify(item);
+                ColumnSchema column = schema.getColumn(name);
+                if (column == null || column.isLarge()) {
+                    throw new IllegalArgumentException("不支持的分组字段: " + item);
+                }
+                if (!groupColumns.contains(name)) {
+                    groupColumns.add(name);
+                }
+            }
+
+            // 查询列: 分组字段在前,聚合项在后
+            Set<String> aliases = new LinkedHashSet<>(groupColumns);
+            List<String> selects = new ArrayList<>();
+            for (String name : groupColumns) {
+                selects.add(qualify(targetTable, name) + " AS `" + name + "`");
+            }
+            List<String> aggregateAliases = new ArrayList<>();
+            for (String item : StrUtil.splitTrim(MapUtil.getStr(params, "aggregates", "count:*"), ",")) {
+                String function = StrUtil.subBefore(item, ":", false).trim().toLowerCase();
+                String name = unqualify(StrUtil.subAfter(item, ":", false));
+                if (!FUNCTIONS.contains(function)) {
+                    throw new IllegalArgumentException("不支持的聚合函数: " + item);
+                }
+                String expression;
+                String alias;
+                if (StrUtil.isEmpty(name) || "*".equals(name)) {
+                    if (!"count".equals(function)) {
+                        throw new IllegalArgumentException("仅 count 支持 *: " + item);
+                    }
+                    expression = "COUNT(*)";
+                    alias = "count";
+                } else {
+                    ColumnSchema column = schema.getColumn(name);
+                    if (column == null || column.isLarge()) {
+                        throw new IllegalArgumentException("不支持的聚合字段: " + item);
+                    }
+                    if (("sum".equals(function) || "avg".equals(function)) && !column.isNumeric()) {
+                        throw new IllegalArgumentException("sum/avg 仅支持数值字段: " + item);
+                    }
+                    expression = function.toUpperCase() + "(" + qualify(targetTable, name) + ")";
+                    alias = function + "_" + name;
+                }
+                if (aliases.add(alias)) {
+                    selects.add(expression + " AS `" + alias + "`");
+                    aggregateAliases.add(alias);
+                }
+            }
+            if (aggregateAliases.isEmpty()) {
+                throw new IllegalArgumentException("aggregates不能为空");
+            }
+
+            String groupByString = groupColumns.stream().map(c -> qualify(targetTable, c))
+                    .collect(Collectors.joining(", "));
+            String sortByAndType = resolveSort(MapUtil.getStr(params, "sortBy"), aliases, groupByString);
+
+            Map<String, Object> whereParams = new HashMap<>();
+            String whereStr = SqlWhereBuilder.build(targetTable, params, schema, false, whereParams,
+                    ngramIndexService.resolve(targetTable, params, schema)).toString();
+
+            // 多取一行判断分组数是否超过上限
+            int limit = Math.max(1, Math.min(MapUtil.getInt(params, "pageSize", maxGroups), maxGroups));
+            List<Map<String, Object>> items = baseService.queryList(targetTable, 0, limit + 1,
+                    String.join(", ", selects), null, whereStr, sortByAndType, groupByString, whereParams);
+            boolean truncated = items.size() > limit;
+            if (truncated) {
+                items = items.subList(0, limit);
+            }
+
+            Map<String, Object> resultMap = new HashMap<>();
+            resultMap.put("items", items);
+            resultMap.put("groupBy", groupColumns);
+            resultMap.put("aggregates", aggregateAliases);
+            resultMap.put("truncated", truncated);
+            return ResultData.success(resultMap);
+        } catch (IllegalArgumentException e) {
+            return ResultData.fail(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("聚合查询失败", e);
+            return ResultData.fail(500, "聚合查询失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 校验排序,只允许按分组字段或聚合项别名排序,未指定时按分组字段排序
+     */
+    private static String resolveSort(String sortBy, Set<String> aliases, String groupByString) {
+        if (StrUtil.isBlank(sortBy)) {
+            return groupByString;
+        }
+        List<String> parts = new ArrayList<>();
+        for (String item : StrUtil.splitTrim(sortBy, ",")) {
+            String[] tokens = item.split("\\s+");
+            String name = unqualify(tokens[0]);
+            String direction = tokens.length > 1 ? tokens[1].toUpperCase() : "ASC";
+            if (!aliases.contains(name) || tokens.length > 2
+                    || (!"ASC".equals(direction) && !"DESC".equals(direction))) {
+                throw new IllegalArgumentException("不支持的排序: " + item);
+            }
+            parts.add("`" + name + "` " + direction);
+        }
+        return String.join(", ", parts);
+    }
+
+    private static String unqualify(String name) {
+        String column = name.contains(".") ? StrUtil.subAfter(name, ".", true) : name;
+        return StrUtil.unWrap(column.trim(), '`');
+    }
+
+    private static String qualify(String table, String column) {
+        return table + ".`" + column + "`";
+    }
+}
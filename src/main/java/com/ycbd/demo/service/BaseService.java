@@ -1,15 +1,35 @@
 package com.ycbd.demo.service;
 
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
 import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.model.ColumnarResult;
+import com.ycbd.demo.model.TableSchema;
 import com.ycbd.demo.Tools.ResultData;
+import com.ycbd.demo.config.datasource.ReadRouting;
+import com.ycbd.demo.service.cache.MetadataCache;
+import com.ycbd.demo.service.cache.RowCache;
+import com.ycbd.demo.service.cache.SingleFlight;
+import com.ycbd.demo.service.stats.SqlStatsRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * 基础数据库操作服务
@@ -20,6 +40,23 @@ import java.util.Map;
 public class BaseService {
     
     private final SystemMapper systemMapper;
+    private final MetadataCache metadataCache;
+    private final RowCache rowCache;
+    private final MappedSqlSupport mappedSqlSupport;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadRouting readRouting;
+    private final SqlStatsRegistry sqlStatsRegistry;
+
+    /** 相同查询的并发请求合并执行,共享结果时每个调用方获得各自的副本 */
+    private final SingleFlight<String, List<Map<String, Object>>> listFlight =
+            new SingleFlight<>("list", BaseService::freezeRows, BaseService::copyRows);
+    private final SingleFlight<String, ColumnarResult> columnarFlight =
+            new SingleFlight<>("columnar", ColumnarResult::readOnly, ColumnarResult::copy);
+    private final SingleFlight<String, Integer> countFlight =
+            new SingleFlight<>("count", UnaryOperator.identity(), UnaryOperator.identity());
+
+    @Value("${list.single-flight.enabled:true}")
+    private boolean singleFlightEnabled;
     
     /**
      * 查询列表数据
@@ -30,20 +67,155 @@ public class BaseService {
     }
     
     /**
-     * 查询列表数据(支持参数化查询)
+     * 查询列表数据(支持参数化查询),开启读写分离时走只读库,相同查询的并发请求合并执行
      */
     public List<Map<String, Object>> queryList(String table, int pageIndex, int pageSize,
             String columns, String joinString, String whereStr, String sortByAndType, String groupByString,
             Map<String, Object> params) {
-        return systemMapper.getItemsData(table, pageIndex, pageSize, columns, 
-                joinString, whereStr, sortByAndType, groupByString, params);
+        return coalesce(listFlight, () -> flightKey(table, pageIndex, pageSize, columns, joinString, whereStr,
+                sortByAndType, groupByString, params),
+                () -> readRouting.read(() -> systemMapper.getItemsData(table, pageIndex, pageSize, columns, 
+                        joinString, whereStr, sortByAndType, groupByString, params)));
+    }
+    
+    /**
+     * 查询列表数据并以列式结构返回
+     * 复用 getItemsData 的 SQL 定义,直接读取 JDBC 结果集写入值数组,不为每行构建 Map。
+     * 语句经 JdbcTemplate 执行,不经过 MyBatis 拦截器,在此处自行记入 SQL 统计
+     */
+    public ColumnarResult queryColumnar(String table, int pageIndex, int pageSize,
+            String columns, String joinString, String whereStr, String sortByAndType, String groupByString,
+            Map<String, Object> params) {
+        Map<String, Object> parameter = itemsParameter(table, pageIndex, pageSize, columns, joinString,
+                whereStr, sortByAndType, groupByString, params);
+        BoundSql boundSql = mappedSqlSupport.getBoundSql(MappedSqlSupport.SYSTEM_MAPPER + "getItemsData", parameter);
+        Object[] values = mappedSqlSupport.getParameterValues(boundSql, parameter);
+
+        return coalesce(columnarFlight, () -> flightKey(boundSql.getSql(), values), () -> readRouting.read(() -> {
+            List<String> names = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                jdbcTemplate.query(boundSql.getSql(), ps -> {
+                    for (int i = 0; i < values.length; i++) {
+                        ps.setObject(i + 1, values[i]);
+                    }
+                }, rs -> {
+                    if (names.isEmpty()) {
+                        ResultSetMetaData metaData = rs.getMetaData();
+                        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                            names.add(metaData.getColumnLabel(i));
+                        }
+                    }
+                    Object[] row = new Object[names.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    rows.add(row);
+                });
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            } finally {
+                if (sqlStatsRegistry.isEnabled()) {
+                    sqlStatsRegistry.record(MappedSqlSupport.SYSTEM_MAPPER + "getItemsData", boundSql.getSql(),
+                            () -> values, System.nanoTime() - start, rows.size(), failed);
+                }
+            }
+            return new ColumnarResult(names, rows);
+        }));
+    }
+    
+    /**
+     * 获取列表查询的最终 SQL、绑定值与执行计划,参数与 queryList 一致
+     */
+    public Map<String, Object> explainList(String table, int pageIndex, int pageSize,
+            String columns, String joinString, String whereStr, String sortByAndType, String groupByString,
+            Map<String, Object> params) {
+        Map<String, Object> parameter = itemsParameter(table, pageIndex, pageSize, columns, joinString,
+                whereStr, sortByAndType, groupByString, params);
+        BoundSql boundSql = mappedSqlSupport.getBoundSql(MappedSqlSupport.SYSTEM_MAPPER + "getItemsData", parameter);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("sql", boundSql.getSql().replaceAll("\\s+", " ").trim());
+        result.put("parameters", mappedSqlSupport.getParameterValues(boundSql, parameter));
+        result.put("plan", readRouting.read(() -> systemMapper.explainItemsData(table, pageIndex, pageSize, columns,
+                joinString, whereStr, sortByAndType, groupByString, params)));
+        return result;
+    }
+    
+    /**
+     * 流式查询列表数据,调用方需在事务内遍历并关闭游标
+     */
+    public Cursor<Map<String, Object>> streamList(String table, String columns, String joinString,
+            String whereStr, String sortByAndType, String groupByString, Map<String, Object> params) {
+        return systemMapper.streamItemsData(table, columns, joinString, whereStr, sortByAndType, groupByString, params);
+    }
+    
+    /**
+     * 按主键查询单行,表开启行缓存时优先读取缓存
+     * 未开启行缓存的表走只读库;开启行缓存的表未命中时从主库读取,避免把复制延迟前的旧数据写入缓存
+     *
+     * @return 行数据,不存在时返回null
+     */
+    public Map<String, Object> findById(String table, Object id) {
+        boolean cacheable = rowCache.isEnabled(getTableConfig(table));
+        if (cacheable) {
+            Map<String, Object> cached = rowCache.get(table, id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long generation = rowCache.generation(table, id);
+        String primaryKey = StrUtil.blankToDefault(metadataCache.getPriKeyColumn(table), "id");
+        String whereStr = table + ".`" + primaryKey + "` = #{params.id}";
+        Map<String, Object> params = MapUtil.of("id", id);
+        List<Map<String, Object>> items = coalesce(listFlight, () -> flightKey(table, "detail", id, cacheable),
+                () -> cacheable
+                        ? systemMapper.getItemsData(table, 0, 1, "*", null, whereStr, null, null, params)
+                        : readRouting.read(() -> systemMapper.getItemsData(table, 0, 1, "*", null, whereStr, null, null,
+                                params)));
+        if (items.isEmpty()) {
+            return null;
+        }
+        if (cacheable) {
+            rowCache.put(table, id, items.get(0), generation);
+        }
+        return items.get(0);
     }
     
     /**
      * 获取总数
      */
     public int count(String table, String joinString, String whereString) {
-        return systemMapper.getDataCount(table, joinString, whereString);
+        return readRouting.read(() -> systemMapper.getDataCount(table, joinString, whereString));
+    }
+    
+    /**
+     * 获取总数(支持参数化查询)
+     */
+    public int count(String table, String joinString, String whereString, Map<String, Object> params) {
+        return count(table, joinString, whereString, params, null);
+    }
+
+    /**
+     * 获取总数(支持参数化查询),限定数据库端执行时间
+     *
+     * @param maxExecutionMs 最长执行时间(毫秒),超时后数据库中止统计并抛出异常,为null时不限制
+     */
+    public int count(String table, String joinString, String whereString, Map<String, Object> params,
+            Long maxExecutionMs) {
+        return coalesce(countFlight, () -> flightKey(table, joinString, whereString, params),
+                () -> readRouting.read(() -> systemMapper.getDataCount(table, joinString, whereString, params,
+                        maxExecutionMs)));
+    }
+
+    /**
+     * 相同查询并发请求的合并统计
+     */
+    public List<Map<String, Object>> singleFlightStats() {
+        return List.of(listFlight.stats(), columnarFlight.stats(), countFlight.stats());
     }
     
     /**
@@ -57,7 +229,14 @@ public class BaseService {
      * 获取列属性
      */
     public List<Map<String, Object>> getColumnAttributes(String table, String attributeType) {
-        return systemMapper.getColumnAttributes(table, attributeType);
+        return metadataCache.getColumnAttributes(table, attributeType);
+    }
+    
+    /**
+     * 获取表结构
+     */
+    public TableSchema getTableSchema(String table) {
+        return metadataCache.getTableSchema(table);
     }
     
     /**
@@ -93,7 +272,8 @@ public class BaseService {
      */
     public ResultData<Map<String, Object>> update(String table, Map<String, Object> data, int id) {
         try {
-            String primaryKey = systemMapper.getPriKeyColumn(table);
+            String primaryKey = metadataCache.getPriKeyColumn(table);
+            rowCache.evict(table, id);
             int result = systemMapper.updateData(table, data, primaryKey, id);
             return ResultData.success(MapUtil.of("result", result));
         } catch (Exception e) {
@@ -107,7 +287,8 @@ public class BaseService {
      */
     public ResultData<Map<String, Object>> delete(String table, int id) {
         try {
-            String primaryKey = systemMapper.getPriKeyColumn(table);
+            String primaryKey = metadataCache.getPriKeyColumn(table);
+            rowCache.evict(table, id);
             int result = systemMapper.deleteData(table, primaryKey, id);
             return ResultData.success(MapUtil.of("result", result));
         } catch (Exception e) {
@@ -145,19 +326,7 @@ public class BaseService {
      */
     public Map<String, Object> getTableConfig(String tableName) {
         try {
-            // 使用现有的 queryList 方法获取数据
-            List<Map<String, Object>> results = queryList(
-                "table_attribute",  // 表名
-                1,                  // pageIndex
-                1,                  // pageSize
-                "sort, groupby, joinStr, definColumns",  // 需要的字段
-                "",                 // 无需 join
-                "dbtable = '" + tableName + "'",  // where 条件
-                "",                 // 无需排序
-                ""                  // 无需分组
-            );
-            
-            return results.isEmpty() ? new HashMap<>() : results.get(0);
+            return metadataCache.getTableConfig(tableName);
         } catch (Exception e) {
             log.error("获取表配置失败: {}", tableName, e);
             return new HashMap<>();
@@ -168,5 +337,65 @@ public class BaseService {
        return systemMapper.selectSchema(schema_name,table);
     }
 
-   
-} 
\ No newline at end of file
+    /**
+     * 合并执行查询
+     * 事务内的读取可能依赖本事务未提交的写入,处于 read-your-writes 窗口的用户需要读主库,这两种情况不参与合并
+     */
+    private <V> V coalesce(SingleFlight<String, V> flight, Supplier<String> key, Supplier<V> loader) {
+        if (!singleFlightEnabled || TransactionSynchronizationManager.isActualTransactionActive()
+                || readRouting.isPrimaryRequired()) {
+            return loader.get();
+        }
+        return flight.execute(key.get(), loader);
+    }
+
+    private static String flightKey(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof Map) {
+                sb.append(new TreeMap<>((Map<?, ?>) part));
+            } else if (part instanceof Object[]) {
+                sb.append(Arrays.deepToString((Object[]) part));
+            } else {
+                sb.append(part);
+            }
+            sb.append('|');
+        }
+        return sb.toString();
+    }
+
+    private static List<Map<String, Object>> freezeRows(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> snapshot = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            snapshot.add(Collections.unmodifiableMap(row));
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    private static List<Map<String, Object>> copyRows(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> copy = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            copy.add(new HashMap<>(row));
+        }
+        return copy;
+    }
+
+    /**
+     * 组装 getItemsData 语句参数,键与 Mapper 方法的 @Param 名称一致
+     */
+    private static Map<String, Object> itemsParameter(String table, int pageIndex, int pageSize,
+            String columns, String joinString, String whereStr, String sortByAndType, String groupByString,
+            Map<String, Object> params) {
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("table", table);
+        parameter.put("pageIndex", pageIndex);
+        parameter.put("pageSize", pageSize);
+        parameter.put("columns", columns);
+        parameter.put("joinString", joinString);
+        parameter.put("whereStr", whereStr);
+        parameter.put("sortByAndType", sortByAndType);
+        parameter.put("groupByString", groupByString);
+        parameter.put("params", params);
+        return parameter;
+    }
+}
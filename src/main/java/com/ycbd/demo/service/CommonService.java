@@ -1,26 +1,47 @@
 package com.ycbd.demo.service;
 
+import cn.hutool.core.map.CaseInsensitiveMap;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.digest.BCrypt;
 import com.ycbd.demo.Tools.ResultData;
 import com.ycbd.demo.Tools.Tools;
+import com.ycbd.demo.config.datasource.ReadRouting;
 import com.ycbd.demo.interceptor.ServiceInterceptorAspect;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.ColumnarResult;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.cache.DictionaryCache;
+import com.ycbd.demo.service.cache.ListResultCache;
+import com.ycbd.demo.service.cache.MetadataCache;
+import com.ycbd.demo.service.cache.MetadataChangedEvent;
+import com.ycbd.demo.service.cache.MetadataVersionService;
+import com.ycbd.demo.service.cache.RowCache;
+import com.ycbd.demo.service.cache.TableVersionService;
+import com.ycbd.demo.service.search.NgramIndexService;
 import com.ycbd.demo.service.validator.DataValidator;
-import com.ycbd.demo.service.validator.RuleValidator;
 import com.ycbd.demo.service.validator.ValidationResult;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -35,44 +56,57 @@ public class CommonService {
 
     @Value("${jwt.expire-time}")
     private long expireTime;
+
+    /** 列表列式响应格式 */
+    private static final String FORMAT_ROWS = "rows";
+    private static final String FORMAT_COLUMNS = "columns";
+
+    @Value("${list.explain.enabled:false}")
+    private boolean explainEnabled;
+
+    @Value("${list.query.timeout-ms:5000}")
+    private long listQueryTimeoutMs;
     private final BaseService baseService;
     private final DataValidator dataValidator;
-    private final RuleValidator ruleValidator;
     private final JwtService jwtService;
+    private final MetadataCache metadataCache;
+    private final MetadataVersionService metadataVersionService;
+    private final ListCountService listCountService;
+    private final ListResultCache listResultCache;
+    private final RowCache rowCache;
+    private final NgramIndexService ngramIndexService;
+    private final ReadRouting readRouting;
+    private final TableVersionService tableVersionService;
+    private final DictionaryCache dictionaryCache;
+    private final OptionsService optionsService;
     
     /**
      * 数据预处理和验证
      */
     private ResultData<Integer> preProcessAndValidate(String targetTable, Map<String, Object> params, boolean isUpdate) {
         try {
-            // 获取字段属性
-            List<Map<String, Object>> columnAttrs = baseService.getColumnAttributes(targetTable, "edit");
+            // 获取表结构
+            TableSchema schema = baseService.getTableSchema(targetTable);
+            List<ColumnSchema> editColumns = schema.getEditColumns();
             
-            // 数据验证
-            ValidationResult validationResult = dataValidator.validate(targetTable, params, columnAttrs);
+            // 数据验证(包含字段属性与业务规则)
+            ValidationResult validationResult = dataValidator.validate(targetTable, params, editColumns);
             if (!validationResult.getErrors().isEmpty()) {
                 return ResultData.fail(400, String.join("; ", validationResult.getErrors()));
             }
             
-            // 业务规则验证
-            List<String> ruleErrors = ruleValidator.validate(targetTable, params);
-            if (!ruleErrors.isEmpty()) {
-                return ResultData.fail(400, String.join("; ", ruleErrors));
-            }
-            
             // 处理密码字段和移除不可编辑字段
-            for (Map<String, Object> attr : columnAttrs) {
-                String fieldName = MapUtil.getStr(attr, "name");
-                String showType = MapUtil.getStr(attr, "showType");
+            for (ColumnSchema column : editColumns) {
+                String fieldName = column.getName();
                 
                 // 跳过不可编辑字段
-                if (!isUpdate && MapUtil.getInt(attr, "editFlag", 0) != 1) {
+                if (!isUpdate && !column.isEditable()) {
                     params.remove(fieldName);
                     continue;
                 }
                 
                 // 处理密码字段
-                if ("password".equals(showType) && params.containsKey(fieldName)) {
+                if ("password".equals(column.getShowType()) && params.containsKey(fieldName)) {
                     String password = MapUtil.getStr(params, fieldName);
                     if (StrUtil.isNotEmpty(password)) {
                         params.put(fieldName, BCrypt.hashpw(password, BCrypt.gensalt()));
@@ -84,25 +118,26 @@ public class CommonService {
             
             // 设置基础字段
             long currentTime = System.currentTimeMillis();
+            Long userId = getCurrentUserId();
             if (isUpdate) {
-                if (columnAttrs.stream().anyMatch(attr -> "update_time".equals(MapUtil.getStr(attr, "prop")))) {
+                if (schema.hasUpdateTime()) {
                     params.put("update_time", currentTime);
                 }
-                if (columnAttrs.stream().anyMatch(attr -> "update_by".equals(MapUtil.getStr(attr, "prop")))) {
-                    params.put("update_by", getCurrentUserId());
+                if (schema.hasUpdateBy() && userId != null) {
+                    params.put("update_by", userId);
                 }
             } else {
-                if (columnAttrs.stream().anyMatch(attr -> "create_time".equals(MapUtil.getStr(attr, "prop")))) {
+                if (schema.hasCreateTime()) {
                     params.put("create_time", currentTime);
                 }
-                if (columnAttrs.stream().anyMatch(attr -> "update_time".equals(MapUtil.getStr(attr, "prop")))) {
+                if (schema.hasUpdateTime()) {
                     params.put("update_time", currentTime);
                 }
-                if (columnAttrs.stream().anyMatch(attr -> "create_by".equals(MapUtil.getStr(attr, "prop")))) {
-                    params.put("create_by", getCurrentUserId());
+                if (schema.hasCreateBy() && userId != null) {
+                    params.put("create_by", userId);
                 }
-                if (columnAttrs.stream().anyMatch(attr -> "update_by".equals(MapUtil.getStr(attr, "prop")))) {
-                    params.put("update_by", getCurrentUserId());
+                if (schema.hasUpdateBy() && userId != null) {
+                    params.put("update_by", userId);
                 }
             }
             
@@ -136,31 +171,177 @@ public class CommonService {
             String groupByString = MapUtil.getStr(params, "groupByString", 
                 MapUtil.getStr(tableConfig, "groupby"));
             
+            // 响应格式: 默认每行一个对象;rows 为列名数组加行值数组;columns 为列名数组加按列排列的值数组
+            String format = StrUtil.emptyToNull(MapUtil.getStr(params, "format"));
+            if (format != null && !FORMAT_ROWS.equals(format) && !FORMAT_COLUMNS.equals(format)) {
+                return ResultData.fail(400, "不支持的响应格式: " + format);
+            }
+            
+            // 执行计划模式: 返回最终 SQL、执行计划与耗时,不读写结果缓存
+            boolean explain = explainEnabled && "true".equalsIgnoreCase(MapUtil.getStr(params, "explain"));
+            long startTime = System.currentTimeMillis();
+            
+            // 结果缓存: 按表开启,命中时直接返回
+            String cacheKey = null;
+            long cacheGeneration = 0;
+            if (!explain && listResultCache.isEnabled(tableConfig)) {
+                cacheKey = listResultCache.buildKey(targetTable, joinString, pageIndex, pageSize, params);
+                Map<String, Object> cached = listResultCache.get(cacheKey);
+                if (cached != null) {
+                    return ResultData.success(cached);
+                }
+                cacheGeneration = listResultCache.generation(cacheKey);
+                // 涉及的表刚写入过时只读库可能尚未同步,本次结果不写入缓存(须在获取失效版本号之后判断)
+                if (!readRouting.isPrimaryRequired()
+                        && readRouting.isRecentlyWritten(ListResultCache.involvedTables(targetTable, joinString))) {
+                    cacheKey = null;
+                }
+            }
+            
             // 使用 SqlWhereBuilder 构建查询条件
-           List<Map<String,Object>> attributeList= baseService.getColumnAttributes(targetTable,"search");
-           String columns = MapUtil.getStr(params, "columns", "*");
-            String whereStr = SqlWhereBuilder.build(targetTable, params, attributeList, false).toString();
-            
-            // 获取数据
-            List<Map<String, Object>> items = baseService.queryList(
-                targetTable,
-                pageIndex,
-                pageSize,
-                columns,
-                joinString,
-                whereStr,
-                sortByAndType,
-                groupByString
-            );
+            TableSchema schema = baseService.getTableSchema(targetTable);
+            Map<String, Object> whereParams = new HashMap<>();
+            String whereStr = SqlWhereBuilder.build(targetTable, params, schema, false, whereParams,
+                    ngramIndexService.resolve(targetTable, params, schema)).toString();
+            
+            // 总数统计方式
+            CountMode countMode = listCountService.resolveMode(params, tableConfig);
+            
+            // 游标分页: 以定位条件替代偏移量,多取一行判断是否还有下一页
+            KeysetCursor keysetCursor = null;
+            Map<String, Object> queryParams = new HashMap<>(whereParams);
+            String pageWhere = whereStr;
+            int offset = pageIndex;
+            int limit = pageSize;
+            if ("keyset".equalsIgnoreCase(MapUtil.getStr(params, "pageMode"))) {
+                String primaryKey = StrUtil.blankToDefault(schema.getPrimaryKey(), "id");
+                keysetCursor = KeysetCursor.of(targetTable, sortByAndType, primaryKey);
+                sortByAndType = keysetCursor.getOrderBy();
+                String cursor = MapUtil.getStr(params, "cursor");
+                if (StrUtil.isNotEmpty(cursor)) {
+                    String seek = keysetCursor.buildSeekCondition(cursor, queryParams);
+                    pageWhere = StrUtil.isEmpty(whereStr) ? seek : "(" + whereStr + ") AND " + seek;
+                }
+                offset = 0;
+            }
+            // 查询列: 未指定时取列表字段,指定时按列属性校验,大字段只通过详情接口加载
+            String columns = resolveColumns(targetTable, schema, MapUtil.getStr(params, "columns"),
+                    MapUtil.getStr(tableConfig, "definColumns"),
+                    keysetCursor == null ? null : keysetCursor.getKeyColumns());
+            
+            // 游标分页或不统计总数时多取一行,用于判断是否还有下一页
+            boolean fetchExtra = keysetCursor != null || countMode == CountMode.NONE;
+            if (fetchExtra) {
+                limit = pageSize + 1;
+            }
             
-            // 获取总数
-            int total = baseService.count(targetTable, joinString, whereStr);
+            // 总数统计先提交到统计线程池,与分页查询并行执行
+            long deadline = System.currentTimeMillis() + listQueryTimeoutMs;
+            CompletableFuture<Long> totalFuture = listCountService.countAsync(countMode, targetTable,
+                    joinString, whereStr, whereParams, tableConfig, deadline);
+            
+            // 获取数据,列式格式直接读取结果集生成值数组
+            long itemsStart = System.currentTimeMillis();
+            List<Map<String, Object>> items = null;
+            ColumnarResult columnar = null;
+            int fetched;
+            if (format == null) {
+                items = baseService.queryList(
+                    targetTable,
+                    offset,
+                    limit,
+                    columns,
+                    joinString,
+                    pageWhere,
+                    sortByAndType,
+                    groupByString,
+                    queryParams
+                );
+                fetched = items.size();
+            } else {
+                columnar = baseService.queryColumnar(targetTable, offset, limit, columns, joinString,
+                        pageWhere, sortByAndType, groupByString, queryParams);
+                fetched = columnar.getRows().size();
+            }
             
+            long itemsMs = System.currentTimeMillis() - itemsStart;
             Map<String, Object> resultMap = new HashMap<>();
-            resultMap.put("items", items);
-            resultMap.put("total", total);
+            
+            // 等待总数,统计失败或超过截止时间时仍返回数据,并标记总数不可用
+            Long total = null;
+            boolean totalAvailable = true;
+            try {
+                total = totalFuture.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 取消不会中断正在执行的 JDBC 语句,统计语句由 MAX_EXECUTION_TIME 在截止时间由数据库中止
+                totalFuture.cancel(true);
+                totalAvailable = false;
+                log.warn("列表总数统计超时: {}, 超过 {}ms", targetTable, listQueryTimeoutMs);
+            } catch (ExecutionException e) {
+                totalAvailable = false;
+                log.warn("列表总数统计失败: {}", targetTable, e.getCause());
+            }
+            if (countMode != CountMode.NONE) {
+                resultMap.put("totalAvailable", totalAvailable);
+            }
+            
+            if (fetchExtra) {
+                boolean hasMore = fetched > pageSize;
+                if (hasMore) {
+                    if (items != null) {
+                        items = items.subList(0, pageSize);
+                    } else {
+                        columnar = columnar.limit(pageSize);
+                    }
+                }
+                resultMap.put("hasMore", hasMore);
+                if (keysetCursor != null) {
+                    String nextCursor = null;
+                    if (hasMore) {
+                        nextCursor = keysetCursor.encode(items != null ? items.get(items.size() - 1)
+                                : columnar.rowAsMap(columnar.getRows().size() - 1));
+                    }
+                    resultMap.put("nextCursor", nextCursor);
+                }
+            }
+            // 字典列翻译为名称
+            if (columnar == null) {
+                items = dictionaryCache.translate(schema, items);
+            } else {
+                columnar = dictionaryCache.translate(schema, columnar);
+            }
+            if (columnar == null) {
+                resultMap.put("items", items);
+            } else {
+                resultMap.put("columns", columnar.getColumns());
+                if (FORMAT_COLUMNS.equals(format)) {
+                    resultMap.put("values", columnar.toColumnArrays());
+                } else {
+                    resultMap.put("rows", columnar.getRows());
+                }
+            }
+            if (total != null) {
+                resultMap.put("total", total);
+            }
+            if (countMode != CountMode.EXACT) {
+                resultMap.put("countMode", countMode.name().toLowerCase());
+            }
+            if (explain) {
+                long totalMs = System.currentTimeMillis() - startTime;
+                Map<String, Object> explainMap = baseService.explainList(targetTable, offset, limit, columns,
+                        joinString, pageWhere, sortByAndType, groupByString, queryParams);
+                explainMap.put("countMode", countMode.name().toLowerCase());
+                explainMap.put("itemsMs", itemsMs);
+                explainMap.put("totalMs", totalMs);
+                resultMap.put("explain", explainMap);
+            }
+            if (cacheKey != null && totalAvailable) {
+                listResultCache.put(cacheKey, resultMap, tableConfig, cacheGeneration);
+            }
             return ResultData.success(resultMap);
                 
+        } catch (IllegalArgumentException e) {
+            return ResultData.fail(400, e.getMessage());
         } catch (Exception e) {
             log.error("获取数据列表失败", e);
             return ResultData.fail(500, "获取数据失败：" + e.getMessage());
@@ -191,6 +372,12 @@ public class CommonService {
             // 移除非数据字段
             params.remove("targetTable");
             
+            invalidateMetadata(targetTable, params, isUpdate ? id : null);
+            afterCommit(() -> onTableChanged(targetTable));
+            afterCommit(readRouting::markWrite);
+            // 新增时生成的主键由 insertData 回填到 params.id
+            afterCommit(() -> ngramIndexService.refresh(targetTable, isUpdate ? id : params.get("id")));
+            
             // 执行保存或更新
             if (isUpdate) {
                 return baseService.update(targetTable, params, id);
@@ -216,6 +403,10 @@ public class CommonService {
                 return ResultData.fail(400, "targetTable和id不能为空");
             }
             
+            invalidateMetadata(targetTable, params, id);
+            afterCommit(() -> onTableChanged(targetTable));
+            afterCommit(readRouting::markWrite);
+            afterCommit(() -> ngramIndexService.remove(targetTable, id));
             return baseService.delete(targetTable, id);
             
         } catch (Exception e) {
@@ -236,25 +427,11 @@ public class CommonService {
                 return ResultData.fail(400, "targetTable和id不能为空");
             }
             
-            StringBuilder whereBuilder = new StringBuilder();
-            whereBuilder.append(targetTable).append(".id = ").append(id);
-            
-            List<Map<String, Object>> items = baseService.queryList(
-                targetTable,
-                1,
-                1,
-                "*",
-                null,
-                whereBuilder.toString(),
-                null,
-                null
-            );
-            
-            if (items.isEmpty()) {
+            Map<String, Object> item = baseService.findById(targetTable, id);
+            if (item == null) {
                 return ResultData.fail(404, "数据不存在");
             }
-            
-            return ResultData.success(items.get(0));
+            return ResultData.success(dictionaryCache.translate(baseService.getTableSchema(targetTable), item));
             
         } catch (Exception e) {
             log.error("Get detail failed", e);
@@ -335,6 +512,183 @@ public class CommonService {
        
     }
 
+    /**
+     * 配置表数据变更时失效元数据缓存
+     * 所属业务表取自请求参数与变更前的行(删除和部分更新的请求只带 id,更新也可能改变所属表),
+     * 只失效这些表;新增时无法确定所属表才全部失效。同时递增版本号通知其它节点
+     *
+     * @param id 更新或删除的行主键,新增时为null
+     */
+    private void invalidateMetadata(String targetTable, Map<String, Object> params, Integer id) {
+        String ownerColumn = MetadataCache.METADATA_TABLES.get(targetTable);
+        if (ownerColumn == null) {
+            return;
+        }
+        Set<String> ownerTables = new LinkedHashSet<>();
+        String ownerTable = MapUtil.getStr(params, ownerColumn);
+        if (StrUtil.isNotEmpty(ownerTable)) {
+            ownerTables.add(ownerTable);
+        }
+        if (id != null) {
+            Map<String, Object> row = baseService.findById(targetTable, id);
+            String previousOwner = row == null ? null : MapUtil.getStr(new CaseInsensitiveMap<>(row), ownerColumn);
+            if (StrUtil.isNotEmpty(previousOwner)) {
+                ownerTables.add(previousOwner);
+            }
+        } else if (ownerTables.isEmpty()) {
+            ownerTables.add(null);
+        }
+        for (String table : ownerTables) {
+            metadataVersionService.bump(table);
+            afterCommit(() -> onMetadataChanged(table));
+        }
+    }
+
+    /**
+     * 其它节点修改了配置表,按本节点写入时相同的方式失效
+     */
+    @EventListener
+    public void onMetadataChanged(MetadataChangedEvent event) {
+        onMetadataChanged(event.getTable());
+    }
+
+    /**
+     * 元数据变化后失效元数据及依赖它的列表、统计、单行、下拉缓存并递增 ETag 版本
+     * @param ownerTable 业务表名,为空时全部失效
+     */
+    private void onMetadataChanged(String ownerTable) {
+        if (StrUtil.isEmpty(ownerTable)) {
+            metadataCache.invalidateAll();
+            listCountService.invalidateAll();
+            listResultCache.invalidateAll();
+            rowCache.invalidateAll();
+            optionsService.invalidateAll();
+            tableVersionService.bumpAll();
+        } else {
+            metadataCache.invalidate(ownerTable);
+            rowCache.invalidateTable(ownerTable);
+            onTableChanged(ownerTable);
+        }
+    }
+
+    /**
+     * 解析列表查询列
+     * 未指定或为 * 时取列表字段(IsShowInList=1 及主键)并排除大字段,再追加 table_attribute.definColumns
+     * 中配置的自定义字段(如关联表字段),表未配置列属性时保持 SELECT *;
+     * 指定时逐列校验,未配置的列和大字段返回 400,并追加未选择的必需列
+     *
+     * @param table 目标表
+     * @param schema 表结构
+     * @param columnsParam 客户端指定的查询列,逗号分隔,可带表名前缀
+     * @param definColumns 表配置的自定义字段
+     * @param requiredColumns 必须包含的列(如游标分页的定位列),可为null
+     * @return 查询列语句
+     */
+    private String resolveColumns(String table, TableSchema schema, String columnsParam, String definColumns,
+            List<String> requiredColumns) {
+        if (StrUtil.isBlank(columnsParam) || "*".equals(columnsParam.trim())) {
+            if (schema.isEmpty()) {
+                return "*";
+            }
+            List<String> names = new ArrayList<>();
+            for (ColumnSchema column : schema.getListColumns()) {
+                if (!column.isLarge()) {
+                    names.add(column.getName());
+                }
+            }
+            if (requiredColumns != null) {
+                for (String name : requiredColumns) {
+                    if (!names.contains(name)) {
+                        names.add(name);
+                    }
+                }
+            }
+            if (names.isEmpty()) {
+                return "*";
+            }
+            StringBuilder sb = new StringBuilder();
+            for (String name : names) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(table).append(".`").append(name).append("`");
+            }
+            if (StrUtil.isNotBlank(definColumns)) {
+                sb.append(", ").append(definColumns);
+            }
+            return sb.toString();
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        List<String> selected = new ArrayList<>();
+        for (String item : StrUtil.splitTrim(columnsParam, ",")) {
+            String owner = table;
+            String name = item;
+            if (item.contains(".")) {
+                owner = StrUtil.unWrap(StrUtil.subBefore(item, ".", true), '`');
+                name = StrUtil.subAfter(item, ".", true);
+            }
+            name = StrUtil.unWrap(name, '`');
+            TableSchema ownerSchema = owner.equals(table) ? schema : baseService.getTableSchema(owner);
+            ColumnSchema column = ownerSchema.getColumn(name);
+            if (column == null) {
+                throw new IllegalArgumentException("查询列不存在: " + item);
+            }
+            if (column.isLarge()) {
+                throw new IllegalArgumentException("大字段不能在列表中查询, 请通过详情接口获取: " + item);
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(owner).append(".`").append(name).append("`");
+            if (owner.equals(table)) {
+                selected.add(name);
+            }
+        }
+        // 客户端未选择的必需列自动追加
+        if (requiredColumns != null) {
+            for (String name : requiredColumns) {
+                if (!selected.contains(name)) {
+                    sb.append(", ").append(table).append(".`").append(name).append("`");
+                }
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * 业务表数据变更后失效与该表相关的缓存
+     */
+    private void onTableChanged(String table) {
+        readRouting.markWrite(table);
+        listCountService.invalidate(table);
+        listResultCache.invalidate(table);
+        tableVersionService.bump(table);
+        optionsService.invalidate(table);
+        if (DictionaryCache.DICT_TABLE.equals(table)) {
+            // 字典变化影响所有含字典列的结果
+            dictionaryCache.reload();
+            listResultCache.invalidateAll();
+            tableVersionService.bumpAll();
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行,无事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     /**
      * 获取当前用户ID
      */
@@ -399,7 +753,8 @@ public class CommonService {
             payload.put("userId", user.get("id"));
             payload.put("username", user.get("username"));
             payload.put("orgId", user.get("org_id"));
-            payload.put("roles", user.get("roles"));
+            // sys_user 以 role_ids 保存角色,运维接口按令牌中的角色判断权限
+            payload.put("roles", user.get("roles") != null ? user.get("roles") : user.get("role_ids"));
             
             String token = jwtService.generateToken(payload);
             
@@ -0,0 +1,30 @@
+package com.ycbd.demo.service;
+
+/**
+ * 列表总数统计方式
+ */
+public enum CountMode {
+    /** 精确统计,每次执行 COUNT(*) */
+    EXACT,
+    /** 按表与过滤条件缓存精确统计结果N秒 */
+    CACHED,
+    /** 使用优化器的行数估算 */
+    ESTIMATED,
+    /** 不统计总数,通过多取一行返回 hasMore */
+    NONE;
+
+    /**
+     * 按名称解析(忽略大小写),无法识别时返回null
+     */
+    public static CountMode of(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name.trim())) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.hutool.json.JSONUtil;
+import com.ycbd.demo.Tools.ResultData;
+import com.ycbd.demo.config.datasource.ReadRouting;
+import com.ycbd.demo.interceptor.ServiceInterceptorAspect;
+import com.ycbd.demo.service.cache.ListResultCache;
+import com.ycbd.demo.service.cache.TableVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 条件 GET(ETag / If-None-Match)
+ * 表开启 table_attribute.etagVersion 时以 涉及表的版本号+请求参数摘要 作为 ETag,版本未变化时
+ * 不执行查询直接返回 304;未开启时执行查询后以结果摘要作为 ETag,结果未变化时返回 304 且不传输响应体。
+ * 版本号只感知本节点通用接口的写入,存在其他写入途径或多节点部署时应保持 etagVersion=0。
+ * 开启读写分离时,涉及的表处于写入后的窗口期内查询走主库,避免新版本号对应只读库上复制延迟前的数据
+ */
+@Service
+@RequiredArgsConstructor
+public class ETagService {
+
+    private final BaseService baseService;
+    private final TableVersionService tableVersionService;
+    private final ReadRouting readRouting;
+
+    private final LongAdder versionHits = new LongAdder();
+    private final LongAdder hashHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Value("${http.etag.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 按表版本号处理条件 GET,表未开启 etagVersion 时按结果摘要处理
+     *
+     * @param params 请求参数,必须包含targetTable
+     * @param loader 查询
+     * @return 查询结果,返回null表示已响应 304
+     */
+    public <T> ResultData<T> handleVersioned(WebRequest request, Map<String, Object> params,
+            Supplier<ResultData<T>> loader) {
+        Set<String> tables = versionedTables(params);
+        if (tables == null) {
+            return handle(request, null, loader);
+        }
+        String versionTag = versionTag(params, tables);
+        if (readRouting.isRecentlyWritten(tables)) {
+            return handle(request, versionTag, () -> readRouting.primary(loader));
+        }
+        return handle(request, versionTag, loader);
+    }
+
+    /**
+     * 开启 etagVersion 时返回涉及的表,关联表(joinString 或 table_attribute.joinStr)的写入同样使 ETag 失效
+     *
+     * @return 未开启时返回null
+     */
+    private Set<String> versionedTables(Map<String, Object> params) {
+        String table = MapUtil.getStr(params, "targetTable");
+        if (!enabled || StrUtil.isEmpty(table)) {
+            return null;
+        }
+        Map<String, Object> tableConfig = baseService.getTableConfig(table);
+        if (MapUtil.getInt(tableConfig, "etagVersion", 0) != 1) {
+            return null;
+        }
+        String joinString = MapUtil.getStr(params, "joinString", MapUtil.getStr(tableConfig, "joinStr"));
+        return ListResultCache.involvedTables(table, joinString);
+    }
+
+    /**
+     * 以涉及表的版本号加请求参数摘要生成 ETag,须在执行查询之前获取
+     */
+    private String versionTag(Map<String, Object> params, Set<String> tables) {
+        Map<String, Object> normalized = new TreeMap<>();
+        params.forEach((k, v) -> {
+            if (v != null && StrUtil.isNotBlank(v.toString())) {
+                normalized.put(k, v.toString().trim());
+            }
+        });
+        normalized.put("_userId", ServiceInterceptorAspect.getCurrentUserId());
+        String version = tableVersionService.version(tables);
+        return "\"v-" + version + "-" + SecureUtil.md5(normalized.toString()) + "\"";
+    }
+
+    /**
+     * 处理条件 GET
+     * 有版本 ETag 且与 If-None-Match 一致时直接返回null(响应 304),否则执行查询,
+     * 仅成功结果附带 ETag,结果与 If-None-Match 一致时同样返回null
+     *
+     * @param versionTag 版本 ETag,在执行查询之前获取,可为null
+     * @param loader 查询
+     * @return 查询结果,返回null表示已响应 304
+     */
+    public <T> ResultData<T> handle(WebRequest request, String versionTag, Supplier<ResultData<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        if (versionTag != null && StrUtil.contains(request.getHeader("If-None-Match"), versionTag)
+                && request.checkNotModified(versionTag)) {
+            versionHits.increment();
+            return null;
+        }
+        ResultData<T> result = loader.get();
+        if (result == null || result.getCode() != 200) {
+            return result;
+        }
+        String tag = versionTag != null ? versionTag
+                : "\"h-" + SecureUtil.md5(JSONUtil.toJsonStr(result.getResult())) + "\"";
+        if (request.checkNotModified(tag)) {
+            hashHits.increment();
+            return null;
+        }
+        misses.increment();
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("versionHits", versionHits.sum());
+        stats.put("hashHits", hashHits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+}
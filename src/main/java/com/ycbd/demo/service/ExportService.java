@@ -0,0 +1,166 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.LocalDateTimeUtil;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import cn.hutool.json.JSONUtil;
+import com.ycbd.demo.Tools.ResultData;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.search.NgramIndexService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 数据导出服务
+ * 沿用列表查询的过滤条件,通过 MyBatis 游标流式读取,逐行写入响应(CSV 或 NDJSON),内存占用与数据量无关。
+ * 仅导出 column_attribute.isExport=1 的字段
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final String FORMAT_CSV = "csv";
+    private static final String FORMAT_NDJSON = "ndjson";
+
+    private final BaseService baseService;
+    private final NgramIndexService ngramIndexService;
+
+    /**
+     * 导出数据到响应流
+     * 游标需要在同一个数据库会话内遍历,因此整个导出处于只读事务中
+     *
+     * @param params 查询参数,必须包含targetTable,format 可选 csv(默认)/ndjson
+     * @param response 响应
+     */
+    @Transactional(readOnly = true)
+    public void export(Map<String, Object> params, HttpServletResponse response) throws IOException {
+        String targetTable = MapUtil.getStr(params, "targetTable");
+        if (StrUtil.isEmpty(targetTable)) {
+            writeError(response, 400, "targetTable不能为空");
+            return;
+        }
+        String format = MapUtil.getStr(params, "format", FORMAT_CSV).toLowerCase();
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            writeError(response, 400, "不支持的导出格式: " + format);
+            return;
+        }
+        TableSchema schema = baseService.getTableSchema(targetTable);
+        List<ColumnSchema> columns = schema.getExportColumns();
+        if (columns.isEmpty()) {
+            writeError(response, 400, "该表未配置导出字段");
+            return;
+        }
+
+        Map<String, Object> tableConfig = baseService.getTableConfig(targetTable);
+        String joinString = MapUtil.getStr(params, "joinString", MapUtil.getStr(tableConfig, "joinStr"));
+        String sortByAndType = MapUtil.getStr(params, "sortByAndType", MapUtil.getStr(tableConfig, "sort"));
+        Map<String, Object> whereParams = new HashMap<>();
+        String whereStr = SqlWhereBuilder.build(targetTable, params, schema, false, whereParams,
+                ngramIndexService.resolve(targetTable, params, schema)).toString();
+        String selectColumns = columns.stream()
+                .map(c -> targetTable + ".`" + c.getName() + "`")
+                .collect(Collectors.joining(", "));
+
+        String fileName = URLUtil.encode(targetTable + "." + (FORMAT_CSV.equals(format) ? "csv" : "ndjson"));
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(FORMAT_CSV.equals(format) ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + fileName);
+
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        try (Cursor<Map<String, Object>> cursor = baseService.streamList(targetTable, selectColumns, joinString,
+                whereStr, sortByAndType, null, whereParams)) {
+            if (FORMAT_CSV.equals(format)) {
+                // BOM 使 Excel 正确识别 UTF-8 中文表头
+                writer.write('\uFEFF');
+                writeCsvLine(writer, columns.stream()
+                        .map(c -> StrUtil.blankToDefault(c.getLabel(), c.getName()))
+                        .collect(Collectors.toList()));
+                for (Map<String, Object> row : cursor) {
+                    writeCsvLine(writer, columns.stream()
+                            .map(c -> StrUtil.toStringOrNull(formatValue(row.get(c.getName()))))
+                            .collect(Collectors.toList()));
+                    rows++;
+                }
+            } else {
+                for (Map<String, Object> row : cursor) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    for (ColumnSchema column : columns) {
+                        line.put(column.getName(), formatValue(row.get(column.getName())));
+                    }
+                    writer.write(JSONUtil.toJsonStr(line));
+                    writer.write('\n');
+                    rows++;
+                }
+            }
+        }
+        writer.flush();
+        log.info("导出完成: {}, 格式: {}, 行数: {}, 耗时: {}ms", targetTable, format, rows,
+                System.currentTimeMillis() - start);
+    }
+
+    private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * 含逗号、引号或换行的值加引号,内部引号双写
+     */
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (StrUtil.containsAny(value, ',', '"', '\n', '\r')) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * 日期类型格式化为字符串,其余保持原值
+     */
+    private static Object formatValue(Object value) {
+        if (value instanceof LocalDateTime) {
+            return LocalDateTimeUtil.format((LocalDateTime) value, DatePattern.NORM_DATETIME_PATTERN);
+        }
+        if (value instanceof Date) {
+            return DateUtil.format((Date) value, DatePattern.NORM_DATETIME_PATTERN);
+        }
+        return value;
+    }
+
+    private static void writeError(HttpServletResponse response, int code, String message) throws IOException {
+        response.setStatus(code);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(JSONUtil.toJsonStr(ResultData.fail(code, message)));
+    }
+}
@@ -0,0 +1,234 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.map.CaseInsensitiveMap;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.Tools.QueryRuleEnum;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.cache.MetadataCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 索引建议服务
+ * 按 column_attribute 的查询字段与 table_attribute 的排序、关联配置,为每个查询条件生成与运行时一致的 SQL
+ * 并执行 EXPLAIN,报告会全表扫描(type 为 ALL 或 index)的条件与需要文件排序的排序配置,给出建议的(组合)索引
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexAdvisorService {
+
+    /** 全表扫描或全索引扫描的访问类型 */
+    private static final Set<String> FULL_SCAN_TYPES = Set.of("ALL", "index");
+    /** MySQL 标识符最大长度 */
+    private static final int MAX_INDEX_NAME = 64;
+
+    private final SystemMapper systemMapper;
+    private final MetadataCache metadataCache;
+
+    /**
+     * 分析表的查询条件与排序配置
+     *
+     * @param table 表名,为空时分析 table_attribute 中的全部表
+     * @return 每张表的分析报告
+     */
+    public List<Map<String, Object>> analyze(String table) {
+        List<Map<String, Object>> reports = new ArrayList<>();
+        for (Map<String, Object> config : systemMapper.getAllAttributeData()) {
+            String dbTable = MapUtil.getStr(config, "dbtable");
+            if (StrUtil.isEmpty(dbTable) || (StrUtil.isNotEmpty(table) && !table.equals(dbTable))) {
+                continue;
+            }
+            try {
+                reports.add(analyzeTable(dbTable, config));
+            } catch (Exception e) {
+                log.warn("索引分析失败: {}, {}", dbTable, e.getMessage());
+                Map<String, Object> report = new LinkedHashMap<>();
+                report.put("table", dbTable);
+                report.put("error", e.getMessage());
+                reports.add(report);
+            }
+        }
+        return reports;
+    }
+
+    private Map<String, Object> analyzeTable(String table, Map<String, Object> config) {
+        TableSchema schema = metadataCache.getTableSchema(table);
+        Map<String, List<String>> indexes = loadIndexes(table);
+        List<String> sortColumns = parseSortColumns(MapUtil.getStr(config, "sort"));
+        Set<List<String>> suggested = new LinkedHashSet<>();
+
+        // 逐个查询字段检查
+        List<Map<String, Object>> predicates = new ArrayList<>();
+        for (ColumnSchema column : schema.getSearchColumns()) {
+            Map<String, Object> bind = new HashMap<>();
+            String where = SqlWhereBuilder.build(table, MapUtil.of(column.getName(), sampleValue(column)),
+                    schema, true, bind).toString();
+            Map<String, Object> plan = tablePlan(table,
+                    systemMapper.explainItemsData(table, 0, 10, "*", null, where, null, null, bind));
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("column", column.getName());
+            item.put("queryRule", column.getQueryRule().name().toLowerCase());
+            item.put("where", where);
+            item.put("type", MapUtil.getStr(plan, "type"));
+            item.put("key", MapUtil.getStr(plan, "key"));
+            item.put("rows", MapUtil.getLong(plan, "rows"));
+            boolean fullScan = FULL_SCAN_TYPES.contains(MapUtil.getStr(plan, "type"));
+            item.put("fullScan", fullScan);
+            QueryRuleEnum rule = column.getQueryRule();
+            if (rule == QueryRuleEnum.LIKE || rule == QueryRuleEnum.LEFT_LIKE) {
+                item.put("suggestion", "前置通配符无法使用 B-Tree 索引, 建议将 queryType 改为 right_like 或使用全文/ngram 检索");
+            } else if (fullScan) {
+                List<String> single = List.of(column.getName());
+                suggested.add(single);
+                // 等值条件与默认排序组合,可同时消除过滤扫描与文件排序
+                if ((rule == QueryRuleEnum.EQ || rule == QueryRuleEnum.IN) && !sortColumns.isEmpty()
+                        && !sortColumns.contains(column.getName())) {
+                    List<String> composite = new ArrayList<>(single);
+                    composite.addAll(sortColumns);
+                    suggested.add(composite);
+                }
+                item.put("suggestion", "建议为该字段建立索引");
+            }
+            predicates.add(item);
+        }
+
+        // 默认列表查询(含关联与排序)检查
+        Map<String, Object> defaultQuery = new LinkedHashMap<>();
+        List<Map<String, Object>> defaultPlan = systemMapper.explainItemsData(table, 0, 10, "*",
+                MapUtil.getStr(config, "joinStr"), null, MapUtil.getStr(config, "sort"), null, null);
+        defaultQuery.put("sort", MapUtil.getStr(config, "sort"));
+        defaultQuery.put("joinStr", MapUtil.getStr(config, "joinStr"));
+        defaultQuery.put("plan", defaultPlan);
+        Map<String, Object> mainPlan = tablePlan(table, defaultPlan);
+        boolean filesort = StrUtil.containsIgnoreCase(MapUtil.getStr(mainPlan, "Extra"), "filesort");
+        defaultQuery.put("filesort", filesort);
+        if (filesort && !sortColumns.isEmpty()) {
+            suggested.add(sortColumns);
+        }
+        List<String> fullScanTables = new ArrayList<>();
+        for (Map<String, Object> row : defaultPlan) {
+            Map<String, Object> ci = new CaseInsensitiveMap<>(row);
+            if ("ALL".equals(MapUtil.getStr(ci, "type")) && !table.equals(MapUtil.getStr(ci, "table"))) {
+                fullScanTables.add(MapUtil.getStr(ci, "table"));
+            }
+        }
+        if (!fullScanTables.isEmpty()) {
+            defaultQuery.put("suggestion", "关联表全表扫描, 请检查关联字段索引: " + String.join(",", fullScanTables));
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (List<String> columns : suggested) {
+            if (!isCovered(indexes, columns)) {
+                statements.add(indexStatement(table, columns));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("table", table);
+        report.put("indexes", indexes);
+        report.put("predicates", predicates);
+        report.put("defaultQuery", defaultQuery);
+        report.put("suggestedIndexes", statements);
+        return report;
+    }
+
+    /**
+     * 读取表的现有索引,索引名 -> 有序列名
+     */
+    private Map<String, List<String>> loadIndexes(String table) {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        for (Map<String, Object> row : systemMapper.getTableIndexes(table)) {
+            Map<String, Object> ci = new CaseInsensitiveMap<>(row);
+            indexes.computeIfAbsent(MapUtil.getStr(ci, "INDEX_NAME"), k -> new ArrayList<>())
+                    .add(MapUtil.getStr(ci, "COLUMN_NAME"));
+        }
+        return indexes;
+    }
+
+    /**
+     * 取执行计划中目标表的那一行
+     */
+    private static Map<String, Object> tablePlan(String table, List<Map<String, Object>> plan) {
+        for (Map<String, Object> row : plan) {
+            Map<String, Object> ci = new CaseInsensitiveMap<>(row);
+            if (table.equals(MapUtil.getStr(ci, "table"))) {
+                return ci;
+            }
+        }
+        return plan.isEmpty() ? new HashMap<>() : new CaseInsensitiveMap<>(plan.get(0));
+    }
+
+    /**
+     * 已有索引以这些列为前缀时视为已覆盖
+     */
+    private static boolean isCovered(Map<String, List<String>> indexes, List<String> columns) {
+        for (List<String> indexColumns : indexes.values()) {
+            if (indexColumns.size() >= columns.size()
+                    && indexColumns.subList(0, columns.size()).equals(columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String indexStatement(String table, List<String> columns) {
+        String name = StrUtil.sub("idx_" + table + "_" + String.join("_", columns), 0, MAX_INDEX_NAME);
+        StringBuilder sb = new StringBuilder();
+        for (String column : columns) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append("`").append(column).append("`");
+        }
+        return "ALTER TABLE `" + table + "` ADD INDEX `" + name + "` (" + sb + ")";
+    }
+
+    /**
+     * 解析排序配置中的列名,如 "t.create_time DESC, id" -> [create_time, id]
+     */
+    private static List<String> parseSortColumns(String sort) {
+        List<String> columns = new ArrayList<>();
+        if (StrUtil.isBlank(sort)) {
+            return columns;
+        }
+        for (String part : StrUtil.splitTrim(sort, ",")) {
+            String column = part.split("\\s+")[0];
+            if (column.contains(".")) {
+                column = StrUtil.subAfter(column, ".", true);
+            }
+            columns.add(StrUtil.unWrap(column, '`'));
+        }
+        return columns;
+    }
+
+    /**
+     * 按查询类型与字段类型生成示例值,只用于生成执行计划
+     */
+    private static String sampleValue(ColumnSchema column) {
+        String fieldType = StrUtil.nullToEmpty(column.getFieldType());
+        String value = column.isNumeric() ? "0"
+                : (fieldType.contains("date") || fieldType.contains("time")) ? "2000-01-01 00:00:00" : "a";
+        switch (column.getQueryRule()) {
+            case RANGE:
+                return value + "~" + value;
+            case IN:
+                return value + "," + value;
+            default:
+                return value;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.LocalDateTimeUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游标(Keyset)分页
+ * 以排序列加主键作为定位键,生成 WHERE 定位条件替代 LIMIT offset,深分页时无需扫描并丢弃前面的行。
+ * 游标为 [排序值, 主键值] 的 JSON 数组经 Base64(URL安全) 编码后的字符串,对客户端不透明。
+ * 排序只能是目标表的单列(可再跟同方向的主键),主键作为第二定位列保证顺序稳定;
+ * 按关联表的列或多列排序时无法生成等价的定位条件,直接拒绝,应改用偏移分页。
+ * 定位列允许为 NULL: MySQL 将 NULL 视为最小值,升序时排在最前、降序时排在最后,定位条件按此单独处理 NULL。
+ */
+public class KeysetCursor {
+
+    /** 定位条件中绑定的参数名 */
+    private static final String SORT_PARAM = "_keysetSort";
+    private static final String ID_PARAM = "_keysetId";
+
+    private final String table;
+    private final String sortColumn;
+    private final String primaryKey;
+    private final boolean descending;
+
+    private KeysetCursor(String table, String sortColumn, String primaryKey, boolean descending) {
+        this.table = table;
+        this.sortColumn = sortColumn;
+        this.primaryKey = primaryKey;
+        this.descending = descending;
+    }
+
+    /**
+     * 根据排序配置创建游标分页
+     *
+     * @param table 表名
+     * @param sortByAndType 排序语句,如 "create_time DESC",只能为目标表的单列,可再跟同方向的主键
+     * @param primaryKey 主键列名
+     * @return 游标分页
+     * @throws IllegalArgumentException 排序不满足游标分页要求
+     */
+    public static KeysetCursor of(String table, String sortByAndType, String primaryKey) {
+        String sortColumn = primaryKey;
+        boolean descending = false;
+        if (StrUtil.isNotBlank(sortByAndType)) {
+            List<String> items = StrUtil.splitTrim(sortByAndType, ",");
+            String[] first = parseSortItem(table, items.get(0), sortByAndType);
+            sortColumn = first[0];
+            descending = "DESC".equals(first[1]);
+            if (items.size() > 2) {
+                throw unsupported(sortByAndType);
+            }
+            if (items.size() == 2) {
+                String[] second = parseSortItem(table, items.get(1), sortByAndType);
+                if (!second[0].equals(primaryKey) || !second[1].equals(first[1])) {
+                    throw unsupported(sortByAndType);
+                }
+            }
+        }
+        return new KeysetCursor(table, sortColumn, primaryKey, descending);
+    }
+
+    /**
+     * 解析单个排序项为 [列名, ASC/DESC],列必须属于目标表
+     */
+    private static String[] parseSortItem(String table, String item, String sortByAndType) {
+        String[] parts = item.split("\\s+");
+        if (parts.length > 2 || (parts.length == 2 && !"ASC".equalsIgnoreCase(parts[1])
+                && !"DESC".equalsIgnoreCase(parts[1]))) {
+            throw unsupported(sortByAndType);
+        }
+        String column = parts[0];
+        if (column.contains(".")) {
+            String owner = StrUtil.unWrap(StrUtil.subBefore(column, ".", true), '`');
+            if (!owner.equals(table)) {
+                throw unsupported(sortByAndType);
+            }
+            column = StrUtil.subAfter(column, ".", true);
+        }
+        column = StrUtil.unWrap(column, '`');
+        if (!column.matches("\\w+")) {
+            throw unsupported(sortByAndType);
+        }
+        return new String[] {column, parts.length == 2 ? parts[1].toUpperCase() : "ASC"};
+    }
+
+    private static IllegalArgumentException unsupported(String sortByAndType) {
+        return new IllegalArgumentException("游标分页只支持按目标表的单列排序(可再跟同方向的主键), 请改用偏移分页: "
+                + sortByAndType);
+    }
+
+    /**
+     * 排序语句,定位列后追加主键
+     */
+    public String getOrderBy() {
+        String direction = descending ? " DESC" : " ASC";
+        if (sortColumn.equals(primaryKey)) {
+            return qualify(primaryKey) + direction;
+        }
+        return qualify(sortColumn) + direction + ", " + qualify(primaryKey) + direction;
+    }
+
+    /**
+     * 定位所需的列,查询列中必须包含
+     */
+    public List<String> getKeyColumns() {
+        return sortColumn.equals(primaryKey) ? List.of(primaryKey) : List.of(sortColumn, primaryKey);
+    }
+
+    /**
+     * 构建定位条件,值通过 params 绑定
+     *
+     * @param cursor 上一页返回的游标
+     * @param params 绑定参数,定位值会写入其中
+     * @return 定位条件,如 (t.sort &lt; ? OR (t.sort = ? AND t.id &lt; ?))
+     */
+    public String buildSeekCondition(String cursor, Map<String, Object> params) {
+        JSONArray values = decode(cursor);
+        String operator = descending ? " < " : " > ";
+        String sortBinding = "#{params." + SORT_PARAM + "}";
+        String idBinding = "#{params." + ID_PARAM + "}";
+        params.put(ID_PARAM, values.get(1));
+        if (sortColumn.equals(primaryKey)) {
+            return qualify(primaryKey) + operator + idBinding;
+        }
+        String sort = qualify(sortColumn);
+        String idSeek = qualify(primaryKey) + operator + idBinding;
+        if (JSONUtil.isNull(values.get(0))) {
+            // 上一页停在 NULL 上: 升序时之后是其余 NULL 行和全部非 NULL 行,降序时只剩其余 NULL 行
+            return descending
+                    ? "(" + sort + " IS NULL AND " + idSeek + ")"
+                    : "((" + sort + " IS NULL AND " + idSeek + ") OR " + sort + " IS NOT NULL)";
+        }
+        params.put(SORT_PARAM, values.get(0));
+        String seek = sort + operator + sortBinding + " OR (" + sort + " = " + sortBinding + " AND " + idSeek + ")";
+        // 降序时 NULL 行排在所有非 NULL 行之后
+        return descending ? "(" + seek + " OR " + sort + " IS NULL)" : "(" + seek + ")";
+    }
+
+    /**
+     * 由当前页最后一行生成下一页游标
+     * 查询结果不含值为 NULL 的列,排序列缺失时按 NULL 处理
+     */
+    public String encode(Map<String, Object> lastRow) {
+        if (lastRow.get(primaryKey) == null) {
+            throw new IllegalArgumentException("游标分页的查询列必须包含主键[" + primaryKey + "]");
+        }
+        JSONArray values = new JSONArray(JSONConfig.create().setIgnoreNullValue(false));
+        values.add(toCursorValue(lastRow.get(sortColumn)));
+        values.add(toCursorValue(lastRow.get(primaryKey)));
+        return Base64.encodeUrlSafe(values.toString());
+    }
+
+    private static JSONArray decode(String cursor) {
+        try {
+            JSONArray values = JSONUtil.parseArray(Base64.decodeStr(cursor));
+            if (values.size() != 2 || JSONUtil.isNull(values.get(1))) {
+                throw new IllegalArgumentException();
+            }
+            return values;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 日期类型转为数据库可比较的字符串,其余保持原值
+     */
+    private static Object toCursorValue(Object value) {
+        if (value instanceof LocalDateTime) {
+            return LocalDateTimeUtil.format((LocalDateTime) value, DatePattern.NORM_DATETIME_MS_PATTERN);
+        }
+        if (value instanceof LocalDate) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return DateUtil.format((Date) value, DatePattern.NORM_DATETIME_MS_PATTERN);
+        }
+        return value;
+    }
+
+    private String qualify(String column) {
+        return table + ".`" + column + "`";
+    }
+}
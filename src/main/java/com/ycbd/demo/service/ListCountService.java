@@ -0,0 +1,200 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.map.CaseInsensitiveMap;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.ycbd.demo.config.datasource.ReadRouting;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.service.cache.BoundedCache;
+import com.ycbd.demo.service.cache.ListResultCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 列表总数统计服务
+ * 按请求参数 countMode 或 table_attribute.countMode 选择统计方式: exact / cached / estimated / none。
+ * 统计可在独立线程池中与分页查询并行执行,线程池不注册为 Bean,避免被 @Async 默认选用。
+ * 精确统计按截止时间的剩余毫秒数设置 MAX_EXECUTION_TIME,超时后由数据库中止语句,统计线程与连接随即释放
+ */
+@Slf4j
+@Service
+public class ListCountService {
+
+    private final BaseService baseService;
+    private final SystemMapper systemMapper;
+    private final ReadRouting readRouting;
+    private final BoundedCache<String, Long> countCache;
+    private final int defaultCacheSeconds;
+    private final ThreadPoolTaskExecutor executor;
+    /** 失效版本号,统计期间发生过失效时不写入缓存 */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ListCountService(BaseService baseService, SystemMapper systemMapper, ReadRouting readRouting,
+            @Value("${list.count.cache-size:5000}") int cacheSize,
+            @Value("${list.count.cache-seconds:30}") int defaultCacheSeconds,
+            @Value("${list.query.threads:8}") int threads,
+            @Value("${list.query.queue-capacity:200}") int queueCapacity) {
+        this.baseService = baseService;
+        this.systemMapper = systemMapper;
+        this.readRouting = readRouting;
+        this.defaultCacheSeconds = defaultCacheSeconds;
+        this.countCache = new BoundedCache<>("count", cacheSize, defaultCacheSeconds * 1000L);
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("list-count-");
+        // 将请求线程的读写分离状态(read-your-writes)传递到统计线程
+        executor.setTaskDecorator(readRouting::decorate);
+        // 队列已满时由请求线程自行执行,退化为串行查询
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 解析统计方式,请求参数优先于表配置,默认精确统计
+     */
+    public CountMode resolveMode(Map<String, Object> params, Map<String, Object> tableConfig) {
+        CountMode mode = CountMode.of(MapUtil.getStr(params, "countMode"));
+        if (mode == null) {
+            mode = CountMode.of(MapUtil.getStr(tableConfig, "countMode"));
+        }
+        return mode == null ? CountMode.EXACT : mode;
+    }
+
+    /**
+     * 按统计方式获取总数
+     *
+     * @param deadline 截止时间(毫秒时间戳),精确统计超过该时间由数据库中止,小于等于0表示不限制
+     * @return 总数,NONE 方式返回null
+     */
+    public Long count(CountMode mode, String table, String joinString, String whereStr,
+            Map<String, Object> params, Map<String, Object> tableConfig, long deadline) {
+        switch (mode) {
+            case NONE:
+                return null;
+            case CACHED:
+                return cachedCount(table, joinString, whereStr, params, tableConfig, deadline);
+            case ESTIMATED:
+                return estimatedCount(table, joinString, whereStr, params, deadline);
+            default:
+                return exactCount(table, joinString, whereStr, params, deadline);
+        }
+    }
+
+    /**
+     * 在统计线程池中异步获取总数,使用独立的数据库连接
+     *
+     * @param deadline 截止时间(毫秒时间戳),精确统计超过该时间由数据库中止
+     */
+    public CompletableFuture<Long> countAsync(CountMode mode, String table, String joinString, String whereStr,
+            Map<String, Object> params, Map<String, Object> tableConfig, long deadline) {
+        if (mode == CountMode.NONE) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(
+                () -> count(mode, table, joinString, whereStr, params, tableConfig, deadline), executor);
+    }
+
+    /**
+     * 失效涉及指定表(目标表或关联表)的统计缓存
+     */
+    public void invalidate(String table) {
+        generation.incrementAndGet();
+        countCache.invalidateIf(k -> Arrays.asList(StrUtil.subBefore(k, "|", false).split(",")).contains(table));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        countCache.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = countCache.stats();
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        stats.put("executorActive", pool.getActiveCount());
+        stats.put("executorQueued", pool.getQueue().size());
+        return stats;
+    }
+
+    /**
+     * 精确统计,执行时间限定为截止时间前的剩余毫秒数(在线程池排队耗尽时间时至少 1 毫秒,立即中止)
+     */
+    private Long exactCount(String table, String joinString, String whereStr, Map<String, Object> params,
+            long deadline) {
+        Long maxExecutionMs = deadline > 0 ? Math.max(1, deadline - System.currentTimeMillis()) : null;
+        return (long) baseService.count(table, joinString, whereStr, params, maxExecutionMs);
+    }
+
+    /**
+     * 以涉及的表(目标表及关联表)加过滤条件指纹为键缓存精确统计结果,任一涉及的表变化时失效
+     */
+    private Long cachedCount(String table, String joinString, String whereStr,
+            Map<String, Object> params, Map<String, Object> tableConfig, long deadline) {
+        String fingerprint = SecureUtil.md5(StrUtil.nullToEmpty(joinString) + "|" + StrUtil.nullToEmpty(whereStr)
+                + "|" + (params == null ? "" : new TreeMap<>(params).toString()));
+        Set<String> tables = ListResultCache.involvedTables(table, joinString);
+        String key = String.join(",", tables) + "|" + fingerprint;
+        Long total = countCache.get(key);
+        if (total == null) {
+            long generationBefore = generation.get();
+            // 涉及的表刚写入过时只读库可能尚未同步,统计结果不写入缓存(须在获取失效版本号之后判断)
+            boolean replicaMayLag = !readRouting.isPrimaryRequired() && readRouting.isRecentlyWritten(tables);
+            total = exactCount(table, joinString, whereStr, params, deadline);
+            if (!replicaMayLag && generation.get() == generationBefore) {
+                int seconds = MapUtil.getInt(tableConfig, "countCacheSeconds", defaultCacheSeconds);
+                countCache.put(key, total, seconds * 1000L);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 无条件时取表统计信息的行数,有条件时取执行计划中驱动表的 rows * filtered
+     * 估算失败时退回精确统计
+     */
+    private Long estimatedCount(String table, String joinString, String whereStr, Map<String, Object> params,
+            long deadline) {
+        try {
+            if (StrUtil.isEmpty(whereStr) && StrUtil.isEmpty(joinString)) {
+                Long rows = readRouting.read(() -> systemMapper.getTableRowEstimate(table));
+                if (rows != null) {
+                    return rows;
+                }
+            } else {
+                List<Map<String, Object>> plan = readRouting.read(
+                        () -> systemMapper.explainRows(table, joinString, whereStr, params));
+                if (!plan.isEmpty()) {
+                    Map<String, Object> first = new CaseInsensitiveMap<>(plan.get(0));
+                    Long rows = MapUtil.getLong(first, "rows");
+                    Double filtered = MapUtil.getDouble(first, "filtered", 100d);
+                    if (rows != null) {
+                        return Math.round(rows * filtered / 100d);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("估算总数失败, 使用精确统计: {}", e.getMessage());
+        }
+        return exactCount(table, joinString, whereStr, params, deadline);
+    }
+}
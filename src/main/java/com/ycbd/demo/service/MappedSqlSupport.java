@@ -0,0 +1,72 @@
+package com.ycbd.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapper 语句解析支持
+ * 按 Mapper XML 中的语句与参数生成最终 SQL 及按顺序排列的绑定值,
+ * 供需要直接操作 JDBC 结果集的场景复用同一份 SQL 定义
+ */
+@Component
+@RequiredArgsConstructor
+public class MappedSqlSupport {
+
+    /** SystemMapper 语句命名空间 */
+    public static final String SYSTEM_MAPPER = "com.ycbd.demo.mapper.SystemMapper.";
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    /**
+     * 生成语句的 BoundSql
+     *
+     * @param statementId 语句ID,如 SYSTEM_MAPPER + "getItemsData"
+     * @param parameter 参数,键与 Mapper 方法的 @Param 名称一致
+     */
+    public BoundSql getBoundSql(String statementId, Map<String, Object> parameter) {
+        MappedStatement statement = sqlSessionFactory.getConfiguration().getMappedStatement(statementId);
+        return statement.getBoundSql(parameter);
+    }
+
+    /**
+     * 按占位符顺序取出绑定值,取值规则与 MyBatis 默认参数处理一致
+     */
+    public Object[] getParameterValues(BoundSql boundSql, Map<String, Object> parameter) {
+        return getParameterValues(sqlSessionFactory.getConfiguration(), boundSql, parameter);
+    }
+
+    /**
+     * 按占位符顺序取出绑定值,供无法注入本组件的场景(如 MyBatis 拦截器)使用
+     */
+    public static Object[] getParameterValues(Configuration configuration, BoundSql boundSql, Object parameter) {
+        TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        List<Object> values = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameter == null) {
+                values.add(null);
+            } else if (typeHandlerRegistry.hasTypeHandler(parameter.getClass())) {
+                values.add(parameter);
+            } else {
+                values.add(configuration.newMetaObject(parameter).getValue(property));
+            }
+        }
+        return values.toArray();
+    }
+}
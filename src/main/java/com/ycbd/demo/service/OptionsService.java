@@ -0,0 +1,201 @@
+package com.ycbd.demo.service;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.Tools.ResultData;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.service.cache.BoundedCache;
+import com.ycbd.demo.service.cache.CacheWeigher;
+import com.ycbd.demo.service.cache.ListResultCache;
+import com.ycbd.demo.service.cache.MetadataCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 下拉选项查询
+ * 按 column_attribute.autoSelectId 引用的 autoselect 配置查询 id/label 选项,一次请求可获取多个数据源。
+ * 选项按 数据源+前缀+条数 缓存,过期时间取 autoselect.cacheSeconds,数据源涉及的表(tableName 及 formSql
+ * 中关联的表)经通用接口保存或删除后失效;每个数据源最多返回 cache.options.max-limit 条,大数据源应传 prefix 按名称前缀筛选
+ */
+@Slf4j
+@Service
+public class OptionsService {
+
+    /** 下拉数据源配置表 */
+    public static final String AUTOSELECT_TABLE = "autoselect";
+
+    private final BaseService baseService;
+    private final SystemMapper systemMapper;
+    private final MetadataCache metadataCache;
+    private final BoundedCache<Integer, Map<String, Object>> configCache;
+    private final BoundedCache<String, Map<String, Object>> optionsCache;
+    private final int defaultTtlSeconds;
+    private final int maxLimit;
+    private final int maxSources;
+    /** 失效版本号,查询期间发生过失效时不写入缓存 */
+    private final AtomicLong generation = new AtomicLong();
+
+    public OptionsService(BaseService baseService, SystemMapper systemMapper, MetadataCache metadataCache,
+            @Value("${cache.metadata.ttl-seconds:600}") int configTtlSeconds,
+            @Value("${cache.options.max-size:5000}") int maxSize,
+            @Value("${cache.options.max-bytes:16777216}") long maxBytes,
+            @Value("${cache.options.ttl-seconds:60}") int defaultTtlSeconds,
+            @Value("${cache.options.max-limit:200}") int maxLimit,
+            @Value("${cache.options.max-sources:50}") int maxSources) {
+        this.baseService = baseService;
+        this.systemMapper = systemMapper;
+        this.metadataCache = metadataCache;
+        this.configCache = new BoundedCache<>("autoselect", 1000, configTtlSeconds * 1000L);
+        this.optionsCache = new BoundedCache<>("options", maxSize, defaultTtlSeconds * 1000L, maxBytes,
+                CacheWeigher::estimate);
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.maxSources = maxSources;
+    }
+
+    /**
+     * 批量获取下拉选项
+     *
+     * @param params ids 数据源 autoselect.id,逗号分隔,必填;prefix 名称前缀(可选);limit 每个数据源最多返回的条数
+     * @return 以数据源id为键,值含 items(每项为 id/label,selectSql 自定义时为其查询列)与 truncated(是否还有更多选项)
+     */
+    public ResultData<Map<String, Object>> getOptions(Map<String, Object> params) {
+        try {
+            List<String> ids = StrUtil.splitTrim(MapUtil.getStr(params, "ids"), ",");
+            if (ids.isEmpty()) {
+                return ResultData.fail(400, "ids不能为空");
+            }
+            if (ids.size() > maxSources) {
+                return ResultData.fail(400, "一次最多查询 " + maxSources + " 个数据源");
+            }
+            String prefix = StrUtil.trimToEmpty(MapUtil.getStr(params, "prefix"));
+            int limit = Math.max(1, Math.min(MapUtil.getInt(params, "limit", maxLimit), maxLimit));
+
+            Map<String, Object> resultMap = new LinkedHashMap<>();
+            for (String id : ids) {
+                if (!resultMap.containsKey(id)) {
+                    resultMap.put(id, load(parseId(id), prefix, limit));
+                }
+            }
+            return ResultData.success(resultMap);
+        } catch (IllegalArgumentException e) {
+            return ResultData.fail(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("下拉选项查询失败", e);
+            return ResultData.fail(500, "下拉选项查询失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 失效涉及指定表的选项;autoselect 配置变化时清空全部配置与选项
+     */
+    public void invalidate(String table) {
+        generation.incrementAndGet();
+        if (AUTOSELECT_TABLE.equals(table)) {
+            configCache.clear();
+            optionsCache.clear();
+            return;
+        }
+        optionsCache.invalidateIf(key -> Arrays.asList(StrUtil.subBefore(key, "|", false).split(",")).contains(table));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        configCache.clear();
+        optionsCache.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("config", configCache.stats());
+        stats.put("options", optionsCache.stats());
+        return stats;
+    }
+
+    /**
+     * 获取单个数据源的选项,缓存未命中时查询数据库
+     */
+    private Map<String, Object> load(int id, String prefix, int limit) {
+        Map<String, Object> config = configCache.get(id, systemMapper::getAutoSelect);
+        if (config == null) {
+            throw new IllegalArgumentException("下拉数据源不存在或未启用: " + id);
+        }
+        String table = MapUtil.getStr(config, "tableName");
+        if (StrUtil.isBlank(table)) {
+            throw new IllegalArgumentException("下拉数据源未配置tableName: " + id);
+        }
+        String from = StrUtil.blankToDefault(MapUtil.getStr(config, "formSql"), table);
+        Set<String> tables = ListResultCache.involvedTables(table, from);
+        int ttlSeconds = MapUtil.getInt(config, "cacheSeconds", defaultTtlSeconds);
+        String key = String.join(",", tables) + "|" + id + "|" + limit + "|" + prefix;
+        if (ttlSeconds > 0) {
+            Map<String, Object> cached = optionsCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long generationBefore = generation.get();
+        String labelColumn = StrUtil.blankToDefault(MapUtil.getStr(config, "columnChar"), "name");
+        String columns = MapUtil.getStr(config, "selectSql");
+        String sort = MapUtil.getStr(config, "orderbySql");
+        if (StrUtil.isBlank(columns)) {
+            sort = StrUtil.blankToDefault(sort, labelColumn);
+            String idColumn = StrUtil.blankToDefault(MapUtil.getStr(config, "columnInt"),
+                    StrUtil.blankToDefault(metadataCache.getPriKeyColumn(table), "id"));
+            columns = idColumn + " AS id, " + labelColumn + " AS label";
+        }
+        List<String> conditions = new ArrayList<>();
+        String whereSql = MapUtil.getStr(config, "whereSql");
+        if (StrUtil.isNotBlank(whereSql)) {
+            conditions.add("(" + whereSql + ")");
+        }
+        Map<String, Object> whereParams = new HashMap<>();
+        if (!prefix.isEmpty()) {
+            conditions.add(labelColumn + " LIKE #{params.prefix}");
+            whereParams.put("prefix", prefix + "%");
+        }
+        // autoselect.pageSize 限制该数据源的条数上限
+        int configSize = MapUtil.getInt(config, "pageSize", 0);
+        int pageSize = configSize > 0 ? Math.min(limit, configSize) : limit;
+        // 多取一行判断是否还有更多选项
+        List<Map<String, Object>> rows = baseService.queryList(from, 0, pageSize + 1, columns, null,
+                String.join(" AND ", conditions),
+                sort,
+                MapUtil.getStr(config, "groupbySql"), whereParams);
+        boolean truncated = rows.size() > pageSize;
+        List<Map<String, Object>> items = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (Map<String, Object> row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+            items.add(Collections.unmodifiableMap(new LinkedHashMap<>(row)));
+        }
+
+        // 缓存条目被多个请求共享,使用只读结构
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("items", Collections.unmodifiableList(items));
+        options.put("truncated", truncated);
+        options = Collections.unmodifiableMap(options);
+        if (ttlSeconds > 0 && generation.get() == generationBefore) {
+            optionsCache.put(key, options, ttlSeconds * 1000L);
+        }
+        return options;
+    }
+
+    private static int parseId(String id) {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的下拉数据源id: " + id);
+        }
+    }
+}
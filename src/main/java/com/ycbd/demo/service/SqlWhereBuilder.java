@@ -1,21 +1,28 @@
 package com.ycbd.demo.service;
 
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.StrUtil;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.ycbd.demo.Tools.QueryRuleEnum;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.cache.BoundedCache;
 
 
 /**
  * SqlWhereBuilder 类用于构建 SQL WHERE 子句。
  * 该类提供了一系列静态方法，用于根据给定的参数和属性列表生成 SQL 查询条件。
  * 它支持多种查询类型，包括等于、范围、模糊匹配、IN 查询等。
+ * 条件中的值不再拼接为字面量,而是以 #{params._wN} 占位并写入绑定参数,
+ * 相同结构的查询生成相同的 SQL 文本,可复用预编译语句缓存。
+ * 每种(表, 过滤字段及取值形态)组合只编译一次条件模板,运算符、列名引用与取值转换均在模板中确定,
+ * 之后的请求只需绑定值。
  * 
  * @author ycbd
  * @version 1.0
@@ -23,169 +30,340 @@ import com.ycbd.demo.Tools.QueryRuleEnum;
  */
 public class SqlWhereBuilder {
 
+    /** 绑定参数名前缀 */
+    private static final String PARAM_PREFIX = "_w";
+    /** 条件模板缓存上限 */
+    private static final int MAX_TEMPLATES = 1000;
+
+    /** 编译后的条件模板,键为 表名|连接方式|字段:取值形态,... */
+    private static final BoundedCache<String, WhereTemplate> TEMPLATES =
+            new BoundedCache<>("whereTemplate", MAX_TEMPLATES, 0);
+
     /**
      * 构建 SQL WHERE 子句。
      *
      * @param table 表名
      * @param paraMap 参数映射，包含字段名和对应的值
-     * @param attributeList 属性列表，包含每个字段的查询类型和列类型
+     * @param schema 表结构，按查询列的顺序读取参数,只处理查询字段
      * @param isExactMatch 是否使用精确匹配（AND）连接条件，false 则使用 OR
-     * @return 构建好的 SQL WHERE 子句
+     * @param bindParams 绑定参数，条件中的值按出现顺序以 _w0、_w1... 写入其中
+     * @return 构建好的 SQL WHERE 子句模板
+     */
+    public static StringBuilder build(String table, Map<String, Object> paraMap, TableSchema schema, boolean isExactMatch,
+            Map<String, Object> bindParams) {
+        return build(table, paraMap, schema, isExactMatch, bindParams, null);
+    }
+
+    /**
+     * 构建 SQL WHERE 子句,部分字段的条件已在外部解析为主键集合(如 n-gram 索引)。
+     *
+     * @param idFilters 字段名 -> 满足该字段条件的主键集合,这些字段生成 主键 IN (...) 条件,可为null
+     * @see #build(String, Map, TableSchema, boolean, Map)
      */
-    public static StringBuilder build(String table, Map<String, Object> paraMap, List<Map<String, Object>> attributeList, boolean isExactMatch) {
-        StringBuilder sqlBuilder = new StringBuilder();
-        String logicalOperator = isExactMatch ? " AND " : " OR ";
+    public static StringBuilder build(String table, Map<String, Object> paraMap, TableSchema schema, boolean isExactMatch,
+            Map<String, Object> bindParams, Map<String, ? extends Collection<?>> idFilters) {
+        List<ColumnSchema> columns = new ArrayList<>();
+        List<String> shapes = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        StringBuilder key = new StringBuilder(table).append(isExactMatch ? "|AND|" : "|OR|");
 
-        for (Map.Entry<String, Object> paraEntry : paraMap.entrySet()) {
-            String key = paraEntry.getKey();
-            String value = MapUtil.getStr(paraMap, key);
+        for (ColumnSchema column : schema.getSearchColumns()) {
+            String value = MapUtil.getStr(paraMap, column.getName());
             if (StrUtil.isEmpty(value)) {
                 continue;
             }
-
-            Optional<Map<String, Object>> attributeOpt = attributeList.stream()
-                    .filter(map -> MapUtil.getStr(map, "prop").equals(key))
-                    .findFirst();
-
-            if (attributeOpt.isPresent()) {
-                Map<String, Object> attribute = attributeOpt.get();
-                if (sqlBuilder.length() > 0) {
-                    sqlBuilder.append(logicalOperator);
-                }
-                
-                String columnName = table + ".`" + key + "`";
-                String queryType = MapUtil.getStr(attribute, "queryType", "eq");
-                int columnType = MapUtil.getInt(attribute, "columnType", -1);
-
-                sqlBuilder.append(buildCondition(columnName, value, queryType, columnType));
-            } else {
-                System.out.println("Key not found in attribute list: " + key);
+            Collection<?> ids = idFilters == null ? null : idFilters.get(column.getName());
+            String shape = ids != null ? splitIds(ids, values) : splitValue(column.getQueryRule(), value, values);
+            if (shape == null) {
+                continue;
             }
+            columns.add(column);
+            shapes.add(shape);
+            key.append(column.getName()).append(':').append(shape).append(',');
+        }
+        if (columns.isEmpty()) {
+            return new StringBuilder();
         }
 
-        return sqlBuilder;
+        String cacheKey = key.toString();
+        WhereTemplate template = TEMPLATES.get(cacheKey);
+        // 表结构重新加载后按新结构重新编译
+        if (template == null || template.schema != schema) {
+            template = WhereTemplate.compile(table, schema, columns, shapes, isExactMatch);
+            TEMPLATES.put(cacheKey, template);
+        }
+        template.bind(values, bindParams);
+        return new StringBuilder(template.sql);
     }
 
     /**
-     * 根据查询类型构建单个条件。
-     *
-     * @param columnName 列名
-     * @param value 值
-     * @param queryType 查询类型
-     * @param columnType 列类型
-     * @return 构建好的单个条件字符串
+     * 失效指定表的条件模板
      */
-    private static String buildCondition(String columnName, String value, String queryType, int columnType) {
-        QueryRuleEnum comparison = QueryRuleEnum.getByValue(queryType.toLowerCase());
-        StringBuilder condition = new StringBuilder();
-
-        switch (comparison) {
-            case RANGE:
-                condition.append(buildRangeCondition(columnName, value, columnType));
-                break;
-            case LIKE:
-                condition.append(buildLikeCondition(columnName, value));
-                break;
-            case LEFT_LIKE:
-                condition.append(columnName).append(comparison.getValue()).append("'%").append(value).append("'");
-                break;
-            case IN:
-                condition.append(buildInCondition(columnName, value, columnType));
-                break;
-            default:
-                condition.append(columnName).append(comparison.getValue());
-                condition.append(formatValue(value, columnType));
-        }
+    public static void invalidate(String table) {
+        String prefix = table + "|";
+        TEMPLATES.invalidateIf(k -> k.startsWith(prefix));
+    }
 
-        return condition.toString();
+    public static void invalidateAll() {
+        TEMPLATES.clear();
+    }
+
+    /**
+     * 条件模板缓存统计
+     */
+    public static Map<String, Object> stats() {
+        return TEMPLATES.stats();
     }
 
     /**
-     * 构建范围查询条件。
+     * 按查询类型拆分取值,按占位符顺序追加到 values,返回取值形态
      *
-     * @param columnName 列名
-     * @param value 范围值，格式为 "start~end" 或 "start至end"
-     * @param columnType 列类型
-     * @return 构建好的范围查询条件
+     * @return 取值形态,如范围查询的 B(两端)/S(仅起始)/E(仅结束)、多值查询的值个数;无有效取值时返回null
      */
-    private static String buildRangeCondition(String columnName, String value, int columnType) {
-        String[] parts = value.split("[~至]", 2);
-        String start = parts[0].trim();
-        String end = parts.length > 1 ? parts[1].trim() : "";
-
-        if (!start.isEmpty() && !end.isEmpty()) {
-            return columnName + " BETWEEN " + formatValue(start, columnType) + " AND " + formatValue(end, columnType);
-        } else if (!start.isEmpty()) {
-            return columnName + " >= " + formatValue(start, columnType);
-        } else if (!end.isEmpty()) {
-            return columnName + " <= " + formatValue(end, columnType);
+    private static String splitValue(QueryRuleEnum rule, String value, List<Object> values) {
+        switch (rule) {
+            case RANGE: {
+                // 格式为 "start~end" 或 "start至end"
+                String[] parts = value.split("[~至]", 2);
+                String start = parts[0].trim();
+                String end = parts.length > 1 ? parts[1].trim() : "";
+                if (!start.isEmpty() && !end.isEmpty()) {
+                    values.add(start);
+                    values.add(end);
+                    return "B";
+                } else if (!start.isEmpty()) {
+                    values.add(start);
+                    return "S";
+                } else if (!end.isEmpty()) {
+                    values.add(end);
+                    return "E";
+                }
+                return null;
+            }
+            case LIKE: {
+                if (!value.contains(",")) {
+                    values.add(value);
+                    return "1";
+                }
+                // 多个值以逗号分隔时按 OR 连接
+                String[] items = value.split(",");
+                for (String item : items) {
+                    values.add(item.trim());
+                }
+                return items.length == 0 ? null : "M" + items.length;
+            }
+            case IN: {
+                String[] items = value.split(",");
+                for (String item : items) {
+                    values.add(item.trim());
+                }
+                return items.length == 0 ? null : String.valueOf(items.length);
+            }
+            default:
+                values.add(value);
+                return "1";
         }
-        return "";
     }
 
     /**
-     * 构建模糊查询条件。
+     * 主键集合按不小于其大小的 2 的幂补齐(重复最后一个主键),使不同大小的集合共用少量模板
      *
-     * @param columnName 列名
-     * @param value 查询值
-     * @return 构建好的模糊查询条件
+     * @return 取值形态 N+补齐后的个数
      */
-    private static String buildLikeCondition(String columnName, String value) {
-        if (value.contains(",")) {
-            return generateSQL(value, columnName);
-        } else {
-            return columnName + " LIKE '%" + value + "%'";
+    private static String splitIds(Collection<?> ids, List<Object> values) {
+        if (ids.isEmpty()) {
+            return "N0";
+        }
+        int size = Integer.highestOneBit(ids.size());
+        if (size < ids.size()) {
+            size <<= 1;
+        }
+        Object last = null;
+        for (Object id : ids) {
+            values.add(id);
+            last = id;
         }
+        for (int i = ids.size(); i < size; i++) {
+            values.add(last);
+        }
+        return "N" + size;
     }
 
     /**
-     * 构建 IN 查询条件。
-     *
-     * @param columnName 列名
-     * @param value 逗号分隔的多个值
-     * @param columnType 列类型
-     * @return 构建好的 IN 查询条件
+     * 占位符取值转换
      */
-    private static String buildInCondition(String columnName, String value, int columnType) {
-        String[] values = value.split(",");
-        String formattedValues = Arrays.stream(values)
-                .map(v -> formatValue(v.trim(), columnType))
-                .collect(Collectors.joining(", "));
-        return columnName + " IN (" + formattedValues + ")";
+    private enum Transform {
+        /** 原值,数值列的数字内容按数值绑定 */
+        VALUE,
+        /** 全模糊 %v% */
+        CONTAINS,
+        /** 右模糊 v% */
+        STARTS_WITH,
+        /** 左模糊 %v */
+        ENDS_WITH,
+        /** 不转换,用于主键 */
+        RAW
     }
 
     /**
-     * 根据列类型格式化值。
-     *
-     * @param value 原始值
-     * @param columnType 列类型
-     * @return 格式化后的值
+     * 编译后的条件模板,构建后不可变
      */
-    private static String formatValue(String value, int columnType) {
-        if (columnType == 2 || columnType == 3) { // 假设 2 和 3 是数值类型
-            return value;
-        } else {
-            return "'" + value.replace("'", "''") + "'"; // 转义单引号
+    private static class WhereTemplate {
+        private final TableSchema schema;
+        private final String sql;
+        private final String[] names;
+        private final Transform[] transforms;
+        private final boolean[] numeric;
+
+        private WhereTemplate(TableSchema schema, String sql, List<Transform> transforms, List<Boolean> numeric) {
+            this.schema = schema;
+            this.sql = sql;
+            this.transforms = transforms.toArray(new Transform[0]);
+            this.numeric = new boolean[numeric.size()];
+            this.names = new String[numeric.size()];
+            for (int i = 0; i < this.numeric.length; i++) {
+                this.numeric[i] = numeric.get(i);
+                this.names[i] = PARAM_PREFIX + i;
+            }
+        }
+
+        static WhereTemplate compile(String table, TableSchema schema, List<ColumnSchema> columns, List<String> shapes,
+                boolean isExactMatch) {
+            String logicalOperator = isExactMatch ? " AND " : " OR ";
+            List<Transform> transforms = new ArrayList<>();
+            List<Boolean> numeric = new ArrayList<>();
+            StringBuilder sql = new StringBuilder();
+
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnSchema column = columns.get(i);
+                String shape = shapes.get(i);
+                String columnName = table + ".`" + column.getName() + "`";
+                boolean isNumeric = column.isNumeric();
+                if (sql.length() > 0) {
+                    sql.append(logicalOperator);
+                }
+                if (shape.startsWith("N")) {
+                    int count = Integer.parseInt(shape.substring(1));
+                    if (count == 0) {
+                        sql.append("1 = 0");
+                        continue;
+                    }
+                    String primaryKey = StrUtil.blankToDefault(schema.getPrimaryKey(), "id");
+                    sql.append(table).append(".`").append(primaryKey).append("` IN (");
+                    for (int j = 0; j < count; j++) {
+                        if (j > 0) {
+                            sql.append(", ");
+                        }
+                        sql.append(placeholder(transforms, numeric, Transform.RAW, false));
+                    }
+                    sql.append(")");
+                    continue;
+                }
+                switch (column.getQueryRule()) {
+                    case RANGE:
+                        if ("B".equals(shape)) {
+                            sql.append(columnName).append(" BETWEEN ")
+                                    .append(placeholder(transforms, numeric, Transform.VALUE, isNumeric))
+                                    .append(" AND ")
+                                    .append(placeholder(transforms, numeric, Transform.VALUE, isNumeric));
+                        } else {
+                            sql.append(columnName).append("S".equals(shape) ? " >= " : " <= ")
+                                    .append(placeholder(transforms, numeric, Transform.VALUE, isNumeric));
+                        }
+                        break;
+                    case LIKE:
+                        if ("1".equals(shape)) {
+                            sql.append(columnName).append(" LIKE ")
+                                    .append(placeholder(transforms, numeric, Transform.CONTAINS, false));
+                        } else {
+                            int count = Integer.parseInt(shape.substring(1));
+                            sql.append("(");
+                            for (int j = 0; j < count; j++) {
+                                if (j > 0) {
+                                    sql.append(" OR ");
+                                }
+                                sql.append(columnName).append(" LIKE ")
+                                        .append(placeholder(transforms, numeric, Transform.CONTAINS, false));
+                            }
+                            sql.append(")");
+                        }
+                        break;
+                    case LEFT_LIKE:
+                        sql.append(columnName).append(" LIKE ")
+                                .append(placeholder(transforms, numeric, Transform.ENDS_WITH, false));
+                        break;
+                    case RIGHT_LIKE:
+                        sql.append(columnName).append(" LIKE ")
+                                .append(placeholder(transforms, numeric, Transform.STARTS_WITH, false));
+                        break;
+                    case IN: {
+                        int count = Integer.parseInt(shape);
+                        sql.append(columnName).append(" IN (");
+                        for (int j = 0; j < count; j++) {
+                            if (j > 0) {
+                                sql.append(", ");
+                            }
+                            sql.append(placeholder(transforms, numeric, Transform.VALUE, isNumeric));
+                        }
+                        sql.append(")");
+                        break;
+                    }
+                    default:
+                        sql.append(columnName).append(column.getQueryRule().getValue())
+                                .append(placeholder(transforms, numeric, Transform.VALUE, isNumeric));
+                }
+            }
+            return new WhereTemplate(schema, sql.toString(), transforms, numeric);
+        }
+
+        private static String placeholder(List<Transform> transforms, List<Boolean> numeric, Transform transform,
+                boolean isNumeric) {
+            String name = PARAM_PREFIX + transforms.size();
+            transforms.add(transform);
+            numeric.add(isNumeric);
+            return "#{params." + name + "}";
+        }
+
+        /**
+         * 按占位符顺序转换并写入绑定值
+         */
+        void bind(List<Object> values, Map<String, Object> bindParams) {
+            for (int i = 0; i < names.length; i++) {
+                if (transforms[i] == Transform.RAW) {
+                    bindParams.put(names[i], values.get(i));
+                    continue;
+                }
+                String value = (String) values.get(i);
+                Object bound;
+                switch (transforms[i]) {
+                    case CONTAINS:
+                        bound = "%" + value + "%";
+                        break;
+                    case STARTS_WITH:
+                        bound = value + "%";
+                        break;
+                    case ENDS_WITH:
+                        bound = "%" + value;
+                        break;
+                    default:
+                        bound = toValue(value, numeric[i]);
+                }
+                bindParams.put(names[i], bound);
+            }
         }
     }
 
     /**
-     * 为逗号分隔的多个值生成 SQL 条件。
+     * 根据列类型转换绑定值,数值列的数字内容按数值绑定,其余按字符串绑定。
      *
-     * @param values 逗号分隔的多个值
-     * @param columnString 列名
-     * @return 生成的 SQL 条件
+     * @param value 原始值
+     * @param numeric 是否数值列
+     * @return 绑定值
      */
-    private static String generateSQL(String values, String columnString) {
-        StringBuilder sb = new StringBuilder();
-        String[] valueArray = values.split(",");
-        for (String value : valueArray) {
-            String trimmedValue = value.trim();
-            if (sb.length() > 0) {
-                sb.append(" OR ");
-            }
-            sb.append(columnString).append(" LIKE '%").append(trimmedValue).append("%'");
+    private static Object toValue(String value, boolean numeric) {
+        if (numeric && NumberUtil.isNumber(value)) {
+            return NumberUtil.parseNumber(value);
         }
-        return sb.toString();
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.ycbd.demo.service.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 有界本地缓存
+ * 按访问顺序淘汰(LRU),同时支持条目数上限、占用上限(按权重估算)与过期时间(TTL),并记录命中/未命中统计
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long totalWeight;
+    /** 失效版本号,每次移除或清空时递增,加载期间发生过失效则放弃写入,持有锁时访问 */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name 缓存名称,用于统计输出
+     * @param maxSize 最大条目数
+     * @param ttlMillis 过期时间(毫秒),小于等于0表示不过期
+     */
+    public BoundedCache(String name, int maxSize, long ttlMillis) {
+        this(name, maxSize, ttlMillis, 0, null);
+    }
+
+    /**
+     * @param name 缓存名称,用于统计输出
+     * @param maxSize 最大条目数
+     * @param ttlMillis 过期时间(毫秒),小于等于0表示不过期
+     * @param maxWeight 最大总权重(如估算字节数),小于等于0表示不限制
+     * @param weigher 条目权重计算,为null时不按权重淘汰
+     */
+    public BoundedCache(String name, int maxSize, long ttlMillis, long maxWeight, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlMillis;
+        this.maxWeight = weigher == null ? 0 : maxWeight;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 获取缓存值,不存在或已过期时返回null
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 获取缓存值,未命中时通过loader加载并放入缓存
+     * 加载过程在锁外执行,loader返回null时同样会被缓存,避免对不存在的配置反复查询;
+     * 加载期间发生过失效时只返回加载结果不写入缓存,避免失效前读到的旧值被重新放入
+     */
+    public V get(K key, Function<K, V> loader) {
+        long generationBefore;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hits.increment();
+                return entry.value;
+            }
+            generationBefore = generation;
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        put(key, value, ttlMillis, generationBefore);
+        return value;
+    }
+
+    /**
+     * 放入缓存,超出条目数或权重上限时淘汰最久未访问的条目
+     */
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    /**
+     * 放入缓存并指定该条目的过期时间(毫秒),小于等于0表示不过期
+     */
+    public void put(K key, V value, long entryTtlMillis) {
+        put(key, value, entryTtlMillis, -1);
+    }
+
+    /**
+     * 放入缓存
+     *
+     * @param expectedGeneration 加载前的失效版本号,与当前不一致时放弃写入,小于0表示不检查
+     */
+    private void put(K key, V value, long entryTtlMillis, long expectedGeneration) {
+        long expireAt = entryTtlMillis > 0 ? System.currentTimeMillis() + entryTtlMillis : Long.MAX_VALUE;
+        long weight = weigher == null || value == null ? 0 : weigher.applyAsLong(value);
+        if (maxWeight > 0 && weight > maxWeight) {
+            // 单个条目超过总上限时不缓存
+            return;
+        }
+        synchronized (entries) {
+            if (expectedGeneration >= 0 && expectedGeneration != generation) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry<>(value, expireAt, weight));
+            totalWeight += weight;
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while ((entries.size() > maxSize || (maxWeight > 0 && totalWeight > maxWeight)) && it.hasNext()) {
+                totalWeight -= it.next().getValue().weight;
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 移除指定键
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            remove(key);
+        }
+    }
+
+    /**
+     * 移除所有满足条件的键
+     */
+    public void invalidateIf(Predicate<K> predicate) {
+        synchronized (entries) {
+            generation++;
+            entries.entrySet().removeIf(e -> {
+                if (predicate.test(e.getKey())) {
+                    totalWeight -= e.getValue().weight;
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMillis", ttlMillis);
+        if (weigher != null) {
+            synchronized (entries) {
+                stats.put("weight", totalWeight);
+            }
+            stats.put("maxWeight", maxWeight);
+        }
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", total == 0 ? 0d : (double) hitCount / total);
+        return stats;
+    }
+
+    /**
+     * 移除条目并扣减权重,调用方需持有锁
+     */
+    private void remove(K key) {
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            totalWeight -= old.weight;
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expireAt;
+        private final long weight;
+
+        Entry(V value, long expireAt, long weight) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.weight = weight;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expireAt;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ycbd.demo.service.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 缓存条目占用估算
+ * 按常见 JDBC 返回类型粗略估算对象占用的字节数,用于按内存上限淘汰缓存,不追求精确
+ */
+public final class CacheWeigher {
+
+    /** 对象头与引用的大致开销 */
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int ENTRY_OVERHEAD = 32;
+
+    private CacheWeigher() {
+    }
+
+    public static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return OBJECT_OVERHEAD + 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_OVERHEAD + ((byte[]) value).length;
+        }
+        if (value instanceof Object[]) {
+            long size = OBJECT_OVERHEAD;
+            for (Object item : (Object[]) value) {
+                size += 8 + estimate(item);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = OBJECT_OVERHEAD;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += ENTRY_OVERHEAD + estimate(entry.getKey()) + estimate(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = OBJECT_OVERHEAD;
+            for (Object item : (Collection<?>) value) {
+                size += 8 + estimate(item);
+            }
+            return size;
+        }
+        // 数值、日期等定长对象
+        return OBJECT_OVERHEAD + 8;
+    }
+}
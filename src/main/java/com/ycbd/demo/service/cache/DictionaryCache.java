@@ -0,0 +1,204 @@
+package com.ycbd.demo.service.cache;
+
+import cn.hutool.core.map.MapUtil;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.ColumnarResult;
+import com.ycbd.demo.model.TableSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据字典缓存
+ * 首次使用时将 sys_dict 全部启用的字典项加载到内存,sys_dict 经通用接口保存/删除后重新加载,
+ * 并按 dict.refresh-interval-ms 定期重新加载以同步其他节点的修改。
+ * 列表与详情结果中配置了 classcode 的列,按字典翻译为名称,写入 列名+后缀(默认 _label) 字段,原编码值保持不变。
+ * 传入的行可能来自结果缓存或被合并执行的请求共享,翻译结果总是写入新的行,不修改传入的行
+ */
+@Slf4j
+@Component
+public class DictionaryCache {
+
+    /** 字典表 */
+    public static final String DICT_TABLE = "sys_dict";
+
+    private final SystemMapper systemMapper;
+    private final boolean enabled;
+    private final String labelSuffix;
+    /** 字典代码 -> (字典项值 -> 名称),未加载时为null */
+    private volatile Map<String, Map<String, String>> dictionaries;
+    private volatile long loadedAt;
+
+    public DictionaryCache(SystemMapper systemMapper,
+            @Value("${dict.enabled:true}") boolean enabled,
+            @Value("${dict.label-suffix:_label}") String labelSuffix) {
+        this.systemMapper = systemMapper;
+        this.enabled = enabled;
+        this.labelSuffix = labelSuffix;
+    }
+
+    /**
+     * 翻译行中的字典列
+     *
+     * @return 含名称字段的新行列表,无需翻译时返回传入的列表
+     */
+    public List<Map<String, Object>> translate(TableSchema schema, List<Map<String, Object>> rows) {
+        if (!enabled || rows.isEmpty() || schema.getDictColumns().isEmpty()) {
+            return rows;
+        }
+        Map<String, Map<String, String>> dicts = dictionaries();
+        List<Map<String, Object>> translated = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            translated.add(translateRow(schema, row, dicts));
+        }
+        return translated;
+    }
+
+    /**
+     * 翻译单行中的字典列
+     *
+     * @return 含名称字段的新行,无需翻译时返回传入的行
+     */
+    public Map<String, Object> translate(TableSchema schema, Map<String, Object> row) {
+        if (!enabled || row == null || schema.getDictColumns().isEmpty()) {
+            return row;
+        }
+        return translateRow(schema, row, dictionaries());
+    }
+
+    /**
+     * 翻译列式结果,在列尾追加名称列
+     * 列式结果可能被合并执行的多个请求共享,因此返回新的结果,不修改传入的结果
+     */
+    public ColumnarResult translate(TableSchema schema, ColumnarResult result) {
+        if (!enabled || schema.getDictColumns().isEmpty()) {
+            return result;
+        }
+        Map<String, Map<String, String>> dicts = dictionaries();
+        List<String> columns = new ArrayList<>(result.getColumns());
+        List<Integer> sourceIndexes = new ArrayList<>();
+        List<Map<String, String>> sourceDicts = new ArrayList<>();
+        for (ColumnSchema column : schema.getDictColumns()) {
+            int index = result.getColumns().indexOf(column.getName());
+            Map<String, String> dict = dicts.get(column.getClasscode());
+            if (index >= 0 && dict != null) {
+                sourceIndexes.add(index);
+                sourceDicts.add(dict);
+                columns.add(column.getName() + labelSuffix);
+            }
+        }
+        if (sourceIndexes.isEmpty()) {
+            return result;
+        }
+        int width = result.getColumns().size();
+        List<Object[]> rows = new ArrayList<>(result.getRows().size());
+        for (Object[] row : result.getRows()) {
+            Object[] copy = Arrays.copyOf(row, columns.size());
+            for (int i = 0; i < sourceIndexes.size(); i++) {
+                copy[width + i] = label(sourceDicts.get(i), row[sourceIndexes.get(i)]);
+            }
+            rows.add(copy);
+        }
+        return new ColumnarResult(columns, rows);
+    }
+
+    /**
+     * 重新加载全部字典,加载失败(如字典表不存在)时保持原有内容
+     */
+    public synchronized void reload() {
+        try {
+            Map<String, Map<String, String>> loaded = new HashMap<>();
+            for (Map<String, Object> item : systemMapper.getDictItems()) {
+                String classcode = MapUtil.getStr(item, "classcode");
+                String value = MapUtil.getStr(item, "item_value");
+                if (classcode != null && value != null) {
+                    loaded.computeIfAbsent(classcode, k -> new HashMap<>())
+                            .put(value, MapUtil.getStr(item, "item_label"));
+                }
+            }
+            dictionaries = loaded;
+            loadedAt = System.currentTimeMillis();
+            log.info("数据字典加载完成, 字典数: {}", loaded.size());
+        } catch (Exception e) {
+            log.warn("数据字典加载失败: {}", e.getMessage());
+            if (dictionaries == null) {
+                dictionaries = Map.of();
+            }
+        }
+    }
+
+    /**
+     * 定期重新加载,仅在已加载过时执行
+     */
+    @Scheduled(fixedDelayString = "${dict.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        if (enabled && dictionaries != null) {
+            reload();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Map<String, String>> dicts = dictionaries;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("loaded", dicts != null);
+        stats.put("dictionaries", dicts == null ? 0 : dicts.size());
+        stats.put("items", dicts == null ? 0 : dicts.values().stream().mapToInt(Map::size).sum());
+        stats.put("loadedAt", loadedAt);
+        return stats;
+    }
+
+    private Map<String, Map<String, String>> dictionaries() {
+        Map<String, Map<String, String>> dicts = dictionaries;
+        if (dicts == null) {
+            reload();
+            dicts = dictionaries;
+        }
+        return dicts;
+    }
+
+    private Map<String, Object> translateRow(TableSchema schema, Map<String, Object> row,
+            Map<String, Map<String, String>> dicts) {
+        Map<String, Object> translated = new LinkedHashMap<>(row);
+        for (ColumnSchema column : schema.getDictColumns()) {
+            Map<String, String> dict = dicts.get(column.getClasscode());
+            if (dict != null && row.containsKey(column.getName())) {
+                translated.put(column.getName() + labelSuffix, label(dict, row.get(column.getName())));
+            }
+        }
+        return translated;
+    }
+
+    /**
+     * 编码值转名称,多个值以逗号分隔时逐个翻译;找不到对应名称时返回原值
+     */
+    private static String label(Map<String, String> dict, Object value) {
+        if (value == null) {
+            return null;
+        }
+        // tinyint(1) 会被驱动读取为 Boolean
+        String code = value instanceof Boolean ? ((Boolean) value ? "1" : "0") : value.toString();
+        String label = dict.get(code);
+        if (label != null || code.indexOf(',') < 0) {
+            return label != null ? label : code;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String part : code.split(",")) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            String item = part.trim();
+            sb.append(dict.getOrDefault(item, item));
+        }
+        return sb.toString();
+    }
+}
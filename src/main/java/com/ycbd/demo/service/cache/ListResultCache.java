@@ -0,0 +1,185 @@
+package com.ycbd.demo.service.cache;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 列表查询结果缓存
+ * 按 table_attribute.listCache 逐表开启,缓存键由涉及的表名与规范化后的请求参数(过滤条件、列、排序、分页)组成。
+ * 按条目数与估算占用字节数双重限制,任一涉及的表(目标表及关联表)被保存或删除后失效该表的全部条目。
+ * 失效版本号按表维护,某张表的失效只阻止涉及该表的并发查询回填缓存
+ */
+@Slf4j
+@Component
+public class ListResultCache {
+
+    /** 关联语句中的表名 */
+    private static final Pattern JOIN_TABLE = Pattern.compile("\\bJOIN\\s+`?(\\w+)`?", Pattern.CASE_INSENSITIVE);
+
+    private final BoundedCache<String, Map<String, Object>> cache;
+    private final int defaultTtlSeconds;
+    /** 失效版本号,查询期间发生过失效时不写入缓存,避免写入已过时的结果;只增不减,相加不变即表示期间未发生失效 */
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> tableGenerations = new ConcurrentHashMap<>();
+
+    public ListResultCache(@Value("${list.cache.max-size:2000}") int maxSize,
+            @Value("${list.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${list.cache.ttl-seconds:10}") int defaultTtlSeconds) {
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.cache = new BoundedCache<>("list", maxSize, defaultTtlSeconds * 1000L, maxBytes, CacheWeigher::estimate);
+    }
+
+    /**
+     * 该表是否开启了列表缓存
+     */
+    public boolean isEnabled(Map<String, Object> tableConfig) {
+        return MapUtil.getInt(tableConfig, "listCache", 0) == 1;
+    }
+
+    /**
+     * 生成缓存键: 涉及的表名|请求参数摘要
+     *
+     * @param table 目标表
+     * @param joinString 关联语句
+     * @param pageIndex 页码
+     * @param pageSize 每页条数
+     * @param params 请求参数
+     */
+    public String buildKey(String table, String joinString, int pageIndex, int pageSize, Map<String, Object> params) {
+        Set<String> tables = involvedTables(table, joinString);
+        // 忽略空值参数,按键排序,使参数顺序不同的相同查询命中同一条目
+        Map<String, Object> normalized = new TreeMap<>();
+        params.forEach((k, v) -> {
+            if (v != null && StrUtil.isNotBlank(v.toString())) {
+                normalized.put(k, v.toString().trim());
+            }
+        });
+        normalized.put("_pageIndex", pageIndex);
+        normalized.put("_pageSize", pageSize);
+        return String.join(",", tables) + "|" + SecureUtil.md5(normalized.toString());
+    }
+
+    /**
+     * 查询涉及的表: 目标表及关联语句中的表
+     */
+    public static Set<String> involvedTables(String table, String joinString) {
+        Set<String> tables = new LinkedHashSet<>();
+        tables.add(table);
+        if (StrUtil.isNotBlank(joinString)) {
+            Matcher matcher = JOIN_TABLE.matcher("JOIN " + joinString);
+            while (matcher.find()) {
+                tables.add(matcher.group(1));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 缓存键涉及的表当前的失效版本号,应在查询数据库之前获取
+     *
+     * @param key {@link #buildKey} 生成的缓存键
+     */
+    public long generation(String key) {
+        long sum = allGeneration.get();
+        for (String table : keyTables(key)) {
+            sum += tableGeneration(table).get();
+        }
+        return sum;
+    }
+
+    /**
+     * 获取缓存结果,返回副本,调用方可自由修改
+     */
+    public Map<String, Object> get(String key) {
+        return copy(cache.get(key));
+    }
+
+    /**
+     * 缓存列表结果,过期时间取 table_attribute.listCacheSeconds,未配置时取默认值
+     *
+     * @param generation 查询前获取的失效版本号,期间发生过失效则放弃写入
+     */
+    public void put(String key, Map<String, Object> result, Map<String, Object> tableConfig, long generation) {
+        if (generation(key) != generation) {
+            return;
+        }
+        int seconds = MapUtil.getInt(tableConfig, "listCacheSeconds", defaultTtlSeconds);
+        cache.put(key, copy(result), seconds * 1000L);
+    }
+
+    /**
+     * 失效涉及指定表的全部条目
+     */
+    public void invalidate(String table) {
+        tableGeneration(table).incrementAndGet();
+        cache.invalidateIf(key -> keyTables(key).contains(table));
+    }
+
+    public void invalidateAll() {
+        allGeneration.incrementAndGet();
+        cache.clear();
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private AtomicLong tableGeneration(String table) {
+        return tableGenerations.computeIfAbsent(table, k -> new AtomicLong());
+    }
+
+    /**
+     * 缓存键中的表名
+     */
+    private static List<String> keyTables(String key) {
+        return Arrays.asList(StrUtil.subBefore(key, "|", false).split(","));
+    }
+
+    /**
+     * 深复制结果,包括行对象、列式结果的值数组等全部可变结构,避免缓存内容与调用方共享
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copy(Map<String, Object> result) {
+        return result == null ? null : (Map<String, Object>) deepCopy(result);
+    }
+
+    private static Object deepCopy(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new HashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> copy.put(k, deepCopy(v)));
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (Object item : (List<?>) value) {
+                copy.add(deepCopy(item));
+            }
+            return copy;
+        }
+        if (value instanceof Object[]) {
+            Object[] array = ((Object[]) value).clone();
+            for (int i = 0; i < array.length; i++) {
+                array[i] = deepCopy(array[i]);
+            }
+            return array;
+        }
+        return value;
+    }
+}
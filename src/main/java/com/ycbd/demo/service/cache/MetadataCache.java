@@ -0,0 +1,142 @@
+package com.ycbd.demo.service.cache;
+
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.model.CheckRule;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.SqlWhereBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 元数据缓存
+ * 缓存 column_attribute / table_attribute 的查询结果,按(表名, 属性类型)作为键
+ */
+@Slf4j
+@Component
+public class MetadataCache {
+
+    /** 保存或删除后需要失效元数据缓存的配置表,值为记录所属业务表名的字段 */
+    public static final Map<String, String> METADATA_TABLES = Map.of(
+        "column_attribute", "dbTableName",
+        "table_attribute", "dbtable",
+        "column_check_property", "check_table");
+
+    private static final String TYPE_TABLE_CONFIG = "@table";
+    private static final String TYPE_SCHEMA = "@schema";
+    private static final String TYPE_RULES = "@rules";
+
+    private final SystemMapper systemMapper;
+    private final BoundedCache<String, Object> cache;
+
+    public MetadataCache(SystemMapper systemMapper,
+            @Value("${cache.metadata.max-size:2000}") int maxSize,
+            @Value("${cache.metadata.ttl-seconds:600}") long ttlSeconds) {
+        this.systemMapper = systemMapper;
+        this.cache = new BoundedCache<>("metadata", maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * 获取列属性
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getColumnAttributes(String table, String attributeType) {
+        return (List<Map<String, Object>>) cache.get(key(table, attributeType),
+                k -> Collections.unmodifiableList(systemMapper.getColumnAttributes(table, attributeType)));
+    }
+
+    /**
+     * 获取表配置(table_attribute 中的一行),不存在时返回空Map
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getTableConfig(String table) {
+        return (Map<String, Object>) cache.get(key(table, TYPE_TABLE_CONFIG), k -> {
+            List<Map<String, Object>> rows = systemMapper.getAttributeData(table);
+            return rows.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(rows.get(0));
+        });
+    }
+
+    /**
+     * 获取编译后的表结构
+     */
+    public TableSchema getTableSchema(String table) {
+        return (TableSchema) cache.get(key(table, TYPE_SCHEMA),
+                k -> TableSchema.of(table, systemMapper.getColumnAttributeList(table)));
+    }
+
+    /**
+     * 预置表配置,用于启动时批量加载
+     */
+    public void putTableConfig(String table, Map<String, Object> config) {
+        cache.put(key(table, TYPE_TABLE_CONFIG), Collections.unmodifiableMap(config));
+    }
+
+    /**
+     * 预置表结构,用于从快照恢复
+     */
+    public void putTableSchema(String table, TableSchema schema) {
+        cache.put(key(table, TYPE_SCHEMA), schema);
+    }
+
+    /**
+     * 获取编译后的业务校验规则
+     */
+    @SuppressWarnings("unchecked")
+    public List<CheckRule> getCheckRules(String table) {
+        return (List<CheckRule>) cache.get(key(table, TYPE_RULES),
+                k -> compileRules(systemMapper.findColumnCheckRules(table)));
+    }
+
+    /**
+     * 预置校验规则,用于从快照恢复
+     */
+    public void putCheckRules(String table, List<Map<String, Object>> rows) {
+        cache.put(key(table, TYPE_RULES), compileRules(rows));
+    }
+
+    /**
+     * 获取主键列名
+     */
+    public String getPriKeyColumn(String table) {
+        return getTableSchema(table).getPrimaryKey();
+    }
+
+    /**
+     * 失效指定表的全部元数据
+     */
+    public void invalidate(String table) {
+        String prefix = table + "|";
+        cache.invalidateIf(k -> k.startsWith(prefix));
+        SqlWhereBuilder.invalidate(table);
+        log.debug("元数据缓存已失效: {}", table);
+    }
+
+    /**
+     * 失效全部元数据
+     */
+    public void invalidateAll() {
+        cache.clear();
+        SqlWhereBuilder.invalidateAll();
+        log.debug("元数据缓存已全部失效");
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private static List<CheckRule> compileRules(List<Map<String, Object>> rows) {
+        return Collections.unmodifiableList(rows.stream().map(CheckRule::of).collect(Collectors.toList()));
+    }
+
+    private static String key(String table, String attributeType) {
+        return table + "|" + attributeType;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ycbd.demo.service.cache;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 元数据变化事件
+ * 轮询发现其它节点递增了 metadata_version 后发布,由通用服务按本节点配置表写入时相同的方式失效相关缓存
+ */
+@Getter
+public class MetadataChangedEvent extends ApplicationEvent {
+
+    /** 发生变化的业务表,为 null 时表示全部表 */
+    private final String table;
+
+    public MetadataChangedEvent(Object source, String table) {
+        super(source);
+        this.table = table;
+    }
+}
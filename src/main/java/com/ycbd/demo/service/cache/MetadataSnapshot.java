@@ -0,0 +1,322 @@
+package com.ycbd.demo.service.cache;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.ycbd.demo.model.ColumnAttribute;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 元数据二进制快照
+ * 保存每张表的版本号、表配置、列属性与校验规则,写入本地文件后可在启动时一次读入内存解析,
+ * 不依赖数据库即可恢复元数据缓存。读取不使用内存映射,映射期间 Windows 上无法替换该文件
+ *
+ * 文件格式: magic(int) formatVersion(int) createTime(long) allVersion(long) tableCount(int) [table]*
+ * table: name(str) version(long) config(map) columnCount(int) [column(map)]* ruleCount(int) [rule(map)]*
+ * map: size(int) [key(str) value]*, value: type(byte) data, str: byteLength(int, -1表示null) utf8Bytes
+ * 值带类型标记,读回后与数据库查询结果的 Java 类型一致;不支持的类型按字符串保存
+ */
+public class MetadataSnapshot {
+
+    private static final int MAGIC = 0x59434244;
+    private static final int FORMAT_VERSION = 3;
+
+    /** 值类型标记 */
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte TYPE_DECIMAL = 6;
+    private static final byte TYPE_BIG_INTEGER = 7;
+    private static final byte TYPE_SHORT = 8;
+    private static final byte TYPE_BYTE = 9;
+    private static final byte TYPE_FLOAT = 10;
+    private static final byte TYPE_LOCAL_DATE_TIME = 11;
+    private static final byte TYPE_LOCAL_DATE = 12;
+    private static final byte TYPE_TIMESTAMP = 13;
+    private static final byte TYPE_DATE = 14;
+    private static final byte TYPE_BYTES = 15;
+
+    private final long createTime;
+    /** 全部表(*)的版本号 */
+    private final long allVersion;
+    private final Map<String, TableEntry> tables;
+
+    public MetadataSnapshot(long createTime, long allVersion, Map<String, TableEntry> tables) {
+        this.createTime = createTime;
+        this.allVersion = allVersion;
+        this.tables = tables;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public long getAllVersion() {
+        return allVersion;
+    }
+
+    public Map<String, TableEntry> getTables() {
+        return tables;
+    }
+
+    /**
+     * 单表快照
+     */
+    public static class TableEntry {
+        private final long version;
+        private final Map<String, Object> config;
+        private final List<ColumnAttribute> columns;
+        private final List<Map<String, Object>> rules;
+
+        public TableEntry(long version, Map<String, Object> config, List<ColumnAttribute> columns,
+                List<Map<String, Object>> rules) {
+            this.version = version;
+            this.config = config;
+            this.columns = columns;
+            this.rules = rules;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Map<String, Object> getConfig() {
+            return config;
+        }
+
+        public List<ColumnAttribute> getColumns() {
+            return columns;
+        }
+
+        public List<Map<String, Object>> getRules() {
+            return rules;
+        }
+    }
+
+    /**
+     * 写入快照文件,先写临时文件再原子替换,避免进程中断留下半个文件
+     */
+    public void write(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(createTime);
+            out.writeLong(allVersion);
+            out.writeInt(tables.size());
+            for (Map.Entry<String, TableEntry> entry : tables.entrySet()) {
+                TableEntry table = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeLong(table.getVersion());
+                writeMap(out, table.getConfig());
+                out.writeInt(table.getColumns().size());
+                for (ColumnAttribute column : table.getColumns()) {
+                    writeMap(out, BeanUtil.beanToMap(column, false, true));
+                }
+                out.writeInt(table.getRules().size());
+                for (Map<String, Object> rule : table.getRules()) {
+                    writeMap(out, rule);
+                }
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取快照文件
+     */
+    public static MetadataSnapshot read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("无效的元数据快照文件: " + path);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("不支持的元数据快照版本: " + formatVersion);
+            }
+            long createTime = buffer.getLong();
+            long allVersion = buffer.getLong();
+            int tableCount = buffer.getInt();
+            Map<String, TableEntry> tables = new LinkedHashMap<>(tableCount * 2);
+            for (int i = 0; i < tableCount; i++) {
+                String name = readString(buffer);
+                long version = buffer.getLong();
+                Map<String, Object> config = readMap(buffer);
+                int columnCount = buffer.getInt();
+                List<ColumnAttribute> columns = new ArrayList<>(columnCount);
+                for (int j = 0; j < columnCount; j++) {
+                    columns.add(BeanUtil.toBean(readMap(buffer), ColumnAttribute.class));
+                }
+                int ruleCount = buffer.getInt();
+                List<Map<String, Object>> rules = new ArrayList<>(ruleCount);
+                for (int j = 0; j < ruleCount; j++) {
+                    rules.add(readMap(buffer));
+                }
+                tables.put(name, new TableEntry(version, config, columns, rules));
+            }
+            return new MetadataSnapshot(createTime, allVersion, tables);
+        } catch (RuntimeException e) {
+            throw new IOException("元数据快照文件已损坏: " + path, e);
+        }
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, Object> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, Object> readMap(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        Map<String, Object> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(buffer), readValue(buffer));
+        }
+        return map;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(TYPE_BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte(TYPE_LOCAL_DATE_TIME);
+            writeString(out, value.toString());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(TYPE_LOCAL_DATE);
+            writeString(out, value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(TYPE_BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString(buffer);
+            case TYPE_INT:
+                return buffer.getInt();
+            case TYPE_LONG:
+                return buffer.getLong();
+            case TYPE_DOUBLE:
+                return buffer.getDouble();
+            case TYPE_BOOLEAN:
+                return buffer.get() != 0;
+            case TYPE_DECIMAL:
+                return new BigDecimal(readString(buffer));
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readString(buffer));
+            case TYPE_SHORT:
+                return buffer.getShort();
+            case TYPE_BYTE:
+                return buffer.get();
+            case TYPE_FLOAT:
+                return buffer.getFloat();
+            case TYPE_LOCAL_DATE_TIME:
+                return LocalDateTime.parse(readString(buffer));
+            case TYPE_LOCAL_DATE:
+                return LocalDate.parse(readString(buffer));
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            case TYPE_DATE:
+                return new Date(buffer.getLong());
+            case TYPE_BYTES:
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return bytes;
+            default:
+                throw new IllegalStateException("未知的值类型: " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
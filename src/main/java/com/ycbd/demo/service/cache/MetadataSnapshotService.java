@@ -0,0 +1,122 @@
+package com.ycbd.demo.service.cache;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.model.TableSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 元数据快照服务
+ * 启动时先从本地快照恢复元数据缓存,不等待数据库;随后在后台线程中依据 metadata_version 的版本号
+ * 与数据库对账,只重新加载版本变化的表(未开启版本表时全部重新加载),再写回新的快照。
+ * 通过 metadata.snapshot.path 指定快照文件开启
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "metadata.snapshot", name = "path")
+public class MetadataSnapshotService implements ApplicationRunner {
+
+    private final SystemMapper systemMapper;
+    private final MetadataCache metadataCache;
+    private final MetadataVersionService metadataVersionService;
+    private final Path snapshotPath;
+
+    public MetadataSnapshotService(SystemMapper systemMapper, MetadataCache metadataCache,
+            MetadataVersionService metadataVersionService,
+            @Value("${metadata.snapshot.path}") String snapshotPath) {
+        this.systemMapper = systemMapper;
+        this.metadataCache = metadataCache;
+        this.metadataVersionService = metadataVersionService;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MetadataSnapshot snapshot = load();
+        Thread reconciler = new Thread(() -> reconcile(snapshot), "metadata-snapshot-reconcile");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    /**
+     * 读取快照并写入元数据缓存
+     */
+    private MetadataSnapshot load() {
+        if (!Files.exists(snapshotPath)) {
+            log.info("元数据快照不存在, 跳过加载: {}", snapshotPath);
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            MetadataSnapshot snapshot = MetadataSnapshot.read(snapshotPath);
+            snapshot.getTables().forEach((table, entry) -> apply(table, entry));
+            log.info("元数据快照加载完成, 表数量: {}, 耗时: {}ms", snapshot.getTables().size(),
+                    System.currentTimeMillis() - start);
+            return snapshot;
+        } catch (Exception e) {
+            log.warn("元数据快照读取失败, 将从数据库加载: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 与数据库对账并写回快照
+     */
+    private void reconcile(MetadataSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, MetadataSnapshot.TableEntry> previous = snapshot == null ? Map.of() : snapshot.getTables();
+            Map<String, Long> versions = metadataVersionService.loadVersions();
+            long allVersion = versions.getOrDefault(MetadataVersionService.ALL_TABLES, 0L);
+            // 未开启版本表时无法判断哪些表发生了变化,只能全部重新加载
+            boolean reloadAll = !metadataVersionService.isEnabled() || snapshot == null
+                    || snapshot.getAllVersion() != allVersion;
+
+            Map<String, MetadataSnapshot.TableEntry> tables = new LinkedHashMap<>();
+            int reloaded = 0;
+            for (Map<String, Object> config : systemMapper.getAllAttributeData()) {
+                String table = MapUtil.getStr(config, "dbtable");
+                if (StrUtil.isEmpty(table)) {
+                    continue;
+                }
+                long version = versions.getOrDefault(table, 0L);
+                MetadataSnapshot.TableEntry old = previous.get(table);
+                if (!reloadAll && old != null && old.getVersion() == version) {
+                    tables.put(table, new MetadataSnapshot.TableEntry(version, config, old.getColumns(), old.getRules()));
+                    continue;
+                }
+                MetadataSnapshot.TableEntry entry = new MetadataSnapshot.TableEntry(version, config,
+                        systemMapper.getColumnAttributeList(table), systemMapper.findColumnCheckRules(table));
+                apply(table, entry);
+                tables.put(table, entry);
+                reloaded++;
+            }
+            new MetadataSnapshot(System.currentTimeMillis(), allVersion, tables).write(snapshotPath);
+            log.info("元数据快照对账完成, 表数量: {}, 重新加载: {}, 耗时: {}ms", tables.size(), reloaded,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("元数据快照对账失败, 继续使用已加载的元数据: {}", e.getMessage());
+        }
+    }
+
+    private void apply(String table, MetadataSnapshot.TableEntry entry) {
+        metadataCache.putTableConfig(table, entry.getConfig());
+        metadataCache.putTableSchema(table, TableSchema.of(table, entry.getColumns()));
+        metadataCache.putCheckRules(table, entry.getRules());
+    }
+}
@@ -0,0 +1,105 @@
+package com.ycbd.demo.service.cache;
+
+import cn.hutool.core.map.CaseInsensitiveMap;
+import cn.hutool.core.map.MapUtil;
+import com.ycbd.demo.mapper.SystemMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 元数据版本服务
+ * 配置表写入时递增 metadata_version 中对应业务表的版本号;
+ * 各节点定时用一条查询拉取全部版本号,对版本发生变化的表发布 {@link MetadataChangedEvent},
+ * 由监听方失效元数据及依赖它的各级缓存,无需消息中间件即可跨节点同步
+ */
+@Slf4j
+@Service
+public class MetadataVersionService {
+
+    /** 表示全部表的版本键 */
+    public static final String ALL_TABLES = "*";
+
+    private final SystemMapper systemMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    /** 本节点已知的各表版本号 */
+    private final Map<String, Long> knownVersions = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+
+    public MetadataVersionService(SystemMapper systemMapper, ApplicationEventPublisher eventPublisher,
+            @Value("${metadata.version.enabled:false}") boolean enabled) {
+        this.systemMapper = systemMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 递增指定表的版本号,需在配置表写入的同一事务中调用
+     * @param table 业务表名,为空时递增全部表版本
+     */
+    public void bump(String table) {
+        if (!enabled) {
+            return;
+        }
+        systemMapper.bumpMetadataVersion(table == null || table.isEmpty() ? ALL_TABLES : table,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * 轮询版本表,对版本发生变化的表发布元数据变化事件
+     */
+    @Scheduled(fixedDelayString = "${metadata.version.poll-interval-ms:5000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (Map.Entry<String, Long> entry : loadVersions().entrySet()) {
+                String table = entry.getKey();
+                Long version = entry.getValue();
+                Long known = knownVersions.put(table, version);
+                if (initialized && !version.equals(known)) {
+                    log.info("元数据版本变化: {} {} -> {}", table, known, version);
+                    eventPublisher.publishEvent(new MetadataChangedEvent(this, ALL_TABLES.equals(table) ? null : table));
+                }
+            }
+            initialized = true;
+        } catch (Exception e) {
+            log.warn("元数据版本轮询失败: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 从数据库读取全部表的当前版本号
+     */
+    public Map<String, Long> loadVersions() {
+        Map<String, Long> versions = new HashMap<>();
+        if (!enabled) {
+            return versions;
+        }
+        for (Map<String, Object> row : systemMapper.getMetadataVersions()) {
+            Map<String, Object> versionRow = new CaseInsensitiveMap<>(row);
+            versions.put(MapUtil.getStr(versionRow, "table_name"), MapUtil.getLong(versionRow, "version"));
+        }
+        return versions;
+    }
+
+    /**
+     * 本节点已知的各表版本号
+     */
+    public Map<String, Long> getKnownVersions() {
+        return new HashMap<>(knownVersions);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ycbd.demo.service.cache;
+
+import cn.hutool.core.map.MapUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 主键行缓存
+ * 按 table_attribute.rowCache 逐表开启,以 表名|主键值 缓存详情查询的单行数据,读取时填充,
+ * 更新或删除时立即失效,并在事务结束后再失效一次,避免事务提交前被并发读取重新写入旧数据。
+ * 按条目数与估算占用字节数双重限制。
+ * 失效版本号分为全局、按表与按键(按键哈希分段)三级,写入只影响同表同键段的并发读取回填,不影响其他表
+ */
+@Slf4j
+@Component
+public class RowCache {
+
+    /** 按键失效版本号的分段数 */
+    private static final int KEY_STRIPES = 1024;
+
+    private final BoundedCache<String, Map<String, Object>> cache;
+    /** 失效版本号,读取期间发生过失效时不写入缓存;各级版本号只增不减,三者之和不变即表示期间未发生失效 */
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> tableGenerations = new ConcurrentHashMap<>();
+    private final AtomicLongArray keyGenerations = new AtomicLongArray(KEY_STRIPES);
+
+    public RowCache(@Value("${cache.row.max-size:10000}") int maxSize,
+            @Value("${cache.row.max-bytes:33554432}") long maxBytes,
+            @Value("${cache.row.ttl-seconds:300}") int ttlSeconds) {
+        this.cache = new BoundedCache<>("row", maxSize, ttlSeconds * 1000L, maxBytes, CacheWeigher::estimate);
+    }
+
+    /**
+     * 该表是否开启了行缓存
+     */
+    public boolean isEnabled(Map<String, Object> tableConfig) {
+        return MapUtil.getInt(tableConfig, "rowCache", 0) == 1;
+    }
+
+    /**
+     * 指定行当前的失效版本号,应在查询数据库之前获取
+     */
+    public long generation(String table, Object id) {
+        return allGeneration.get() + tableGeneration(table).get() + keyGenerations.get(stripe(key(table, id)));
+    }
+
+    /**
+     * 获取缓存行,返回副本
+     */
+    public Map<String, Object> get(String table, Object id) {
+        Map<String, Object> row = cache.get(key(table, id));
+        return row == null ? null : new HashMap<>(row);
+    }
+
+    /**
+     * 缓存行数据
+     *
+     * @param generation 查询前获取的失效版本号,期间发生过失效则放弃写入
+     */
+    public void put(String table, Object id, Map<String, Object> row, long generation) {
+        if (generation(table, id) == generation) {
+            cache.put(key(table, id), new HashMap<>(row));
+        }
+    }
+
+    /**
+     * 失效指定行,处于事务中时在事务结束后再次失效
+     */
+    public void evict(String table, Object id) {
+        String key = key(table, id);
+        invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * 失效指定表的全部行
+     */
+    public void invalidateTable(String table) {
+        String prefix = table + "|";
+        tableGeneration(table).incrementAndGet();
+        cache.invalidateIf(k -> k.startsWith(prefix));
+    }
+
+    public void invalidateAll() {
+        allGeneration.incrementAndGet();
+        cache.clear();
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private void invalidate(String key) {
+        keyGenerations.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    private AtomicLong tableGeneration(String table) {
+        return tableGenerations.computeIfAbsent(table, k -> new AtomicLong());
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % KEY_STRIPES;
+    }
+
+    private static String key(String table, Object id) {
+        return table + "|" + id;
+    }
+}
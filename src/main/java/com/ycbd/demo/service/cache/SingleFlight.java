@@ -0,0 +1,131 @@
+package com.ycbd.demo.service.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 并发请求合并(single-flight)
+ * 相同键的并发调用只有第一个真正执行,其余调用等待并共享其结果;执行结束后立即移除,不缓存结果。
+ * 有等待方时,执行结果先冻结为只读快照,执行方与每个等待方各自获得快照的副本,任何调用方修改结果都不影响其他调用方;
+ * 没有等待方时执行方直接获得原结果,不产生复制开销
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final UnaryOperator<V> freezer;
+    private final UnaryOperator<V> copier;
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * @param name 名称,用于统计输出
+     * @param freezer 将结果冻结为只读快照,结果不可变时传 UnaryOperator.identity()
+     * @param copier 由快照复制出调用方可修改的结果,结果不可变时传 UnaryOperator.identity()
+     */
+    public SingleFlight(String name, UnaryOperator<V> freezer, UnaryOperator<V> copier) {
+        this.name = name;
+        this.freezer = freezer;
+        this.copier = copier;
+    }
+
+    /**
+     * 执行或加入相同键正在进行的执行
+     * 执行方抛出的异常同样传递给所有等待方
+     */
+    public V execute(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> created = new Flight<>();
+            Flight<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing == null) {
+                return lead(key, created, loader);
+            }
+            if (existing.join()) {
+                shared.increment();
+                return await(existing.future);
+            }
+            // 执行方已结束,不再接受等待方,重新发起
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long executed = executions.sum();
+        long deduplicated = shared.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("name", name);
+        stats.put("inFlight", inFlight.size());
+        stats.put("executions", executed);
+        stats.put("deduplicated", deduplicated);
+        stats.put("dedupRate", executed + deduplicated == 0 ? 0d : (double) deduplicated / (executed + deduplicated));
+        return stats;
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        executions.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.close();
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, flight);
+        if (flight.close() == 0 || value == null) {
+            flight.future.complete(value);
+            return value;
+        }
+        V snapshot = freezer.apply(value);
+        flight.future.complete(snapshot);
+        return copier.apply(snapshot);
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            V snapshot = future.join();
+            return snapshot == null ? null : copier.apply(snapshot);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 一次执行,记录加入的等待方数量;执行方结束后关闭,之后不再接受等待方
+     */
+    private static class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private int waiters;
+        private boolean closed;
+
+        synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        synchronized int close() {
+            closed = true;
+            return waiters;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ycbd.demo.service.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 表数据版本
+ * 本节点内为每张表维护递增的版本号,通用接口保存/删除数据提交后递增,表结构元数据变更时同样递增,
+ * 用于生成条件 GET 的 ETag。版本串包含节点启动标识,重启后此前签发的 ETag 全部失效。
+ * 只能感知经由本节点通用接口的写入
+ */
+@Component
+public class TableVersionService {
+
+    /** 节点启动标识 */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    /** 全部表共同的版本号,元数据整体失效时递增 */
+    private final AtomicLong allVersion = new AtomicLong();
+
+    public void bump(String table) {
+        versions.computeIfAbsent(table, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void bumpAll() {
+        allVersion.incrementAndGet();
+    }
+
+    /**
+     * 指定表的组合版本串
+     */
+    public String version(Collection<String> tables) {
+        StringBuilder sb = new StringBuilder(epoch).append('.').append(allVersion.get());
+        for (String table : tables) {
+            AtomicLong version = versions.get(table);
+            sb.append('.').append(version == null ? 0 : version.get());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ycbd.demo.service.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单列三元组(trigram)倒排索引
+ * 保存 主键 -> 列值 以及 三元组 -> 主键集合,查询时取关键字全部三元组的交集,再以列值校验包含关系,
+ * 得到与 LIKE '%关键字%' 一致的主键集合。比较不区分大小写,与 MySQL 默认排序规则一致
+ */
+public class NgramIndex {
+
+    /** 三元组长度,关键字短于该长度时无法使用索引 */
+    public static final int GRAM = 3;
+
+    private final Map<String, Set<Object>> postings = new HashMap<>();
+    private final Map<Object, String> values = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 写入或更新一行
+     */
+    public void put(Object id, String value) {
+        Object key = normalizeId(id);
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (value == null) {
+                return;
+            }
+            String normalized = value.toLowerCase();
+            values.put(key, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, k -> new HashSet<>()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除一行
+     */
+    public void remove(Object id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(normalizeId(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询列值包含关键字的主键
+     *
+     * @param keyword 关键字
+     * @param limit 结果上限,超过时返回null,由调用方退回数据库模糊查询
+     * @return 主键集合;关键字过短或结果超过上限时返回null
+     */
+    public Set<Object> search(String keyword, int limit) {
+        String normalized = keyword.toLowerCase();
+        if (normalized.length() < GRAM) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排列表开始求交集
+            List<Set<Object>> lists = new ArrayList<>();
+            for (String gram : grams(normalized)) {
+                Set<Object> ids = postings.get(gram);
+                if (ids == null) {
+                    return new HashSet<>();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            Set<Object> result = new LinkedHashSet<>();
+            for (Object id : lists.get(0)) {
+                boolean matched = true;
+                for (int i = 1; i < lists.size() && matched; i++) {
+                    matched = lists.get(i).contains(id);
+                }
+                // 三元组全部命中不代表连续出现,以原值校验
+                if (matched && values.get(id).contains(normalized)) {
+                    result.add(id);
+                    if (result.size() > limit) {
+                        return null;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Object key) {
+        String old = values.remove(key);
+        if (old == null) {
+            return;
+        }
+        for (String gram : grams(old)) {
+            Set<Object> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(key);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * 主键统一为 Long 或 String,避免 Integer 与 Long 视为不同的键
+     */
+    static Object normalizeId(Object id) {
+        if (id instanceof Number) {
+            return ((Number) id).longValue();
+        }
+        return id == null ? null : id.toString();
+    }
+}
@@ -0,0 +1,273 @@
+package com.ycbd.demo.service.search;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ycbd.demo.config.datasource.ReadRouting;
+import com.ycbd.demo.model.ColumnSchema;
+import com.ycbd.demo.model.TableSchema;
+import com.ycbd.demo.service.BaseService;
+import com.ycbd.demo.Tools.QueryRuleEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * n-gram 模糊查询索引服务
+ * 对 search.ngram.columns 配置的 表.字段 在内存中维护三元组倒排索引,启动时在后台线程全表构建,
+ * 保存/删除数据提交后按主键增量维护。查询规则为 LIKE 的条件命中索引时解析为主键集合,
+ * 由 SqlWhereBuilder 生成 主键 IN (...) 条件替代 LIKE '%x%',避免全表扫描。
+ * 关键字不足三个字符、候选超过上限或索引尚未就绪时退回原 LIKE 条件。
+ * 索引只在本节点内维护,多节点部署时其他节点的写入需依赖定期重建同步
+ */
+@Slf4j
+@Service
+public class NgramIndexService implements ApplicationRunner {
+
+    private final BaseService baseService;
+    private final ReadRouting readRouting;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxCandidates;
+    private final long rebuildIntervalMs;
+    /** 表名 -> 建立索引的字段 */
+    private final Map<String, List<String>> configured = new LinkedHashMap<>();
+    /** 已就绪的索引: 表名 -> 字段名 -> 索引 */
+    private final Map<String, Map<String, NgramIndex>> indexes = new ConcurrentHashMap<>();
+    /** 构建中的表在构建期间发生变更的主键,构建完成后补做增量维护 */
+    private final Map<String, Set<Object>> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> buildMillis = new ConcurrentHashMap<>();
+    private volatile long lastBuildAt;
+
+    public NgramIndexService(BaseService baseService, ReadRouting readRouting,
+            PlatformTransactionManager transactionManager,
+            @Value("${search.ngram.enabled:false}") boolean enabled,
+            @Value("${search.ngram.columns:}") String columns,
+            @Value("${search.ngram.max-candidates:5000}") int maxCandidates,
+            @Value("${search.ngram.rebuild-interval-ms:0}") long rebuildIntervalMs) {
+        this.baseService = baseService;
+        this.readRouting = readRouting;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        for (String item : StrUtil.splitTrim(columns, ",")) {
+            String table = StrUtil.subBefore(item, ".", false);
+            String column = StrUtil.subAfter(item, ".", false);
+            if (StrUtil.isEmpty(table) || StrUtil.isEmpty(column)) {
+                log.warn("n-gram 索引字段配置无效, 应为 表.字段: {}", item);
+                continue;
+            }
+            configured.computeIfAbsent(table, k -> new ArrayList<>()).add(column);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || configured.isEmpty()) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuildAll, "ngram-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * 定期全量重建,用于同步其他节点的写入,未配置间隔时不执行
+     */
+    @Scheduled(fixedDelayString = "${search.ngram.rebuild-check-ms:60000}")
+    public void scheduledRebuild() {
+        if (!enabled || rebuildIntervalMs <= 0 || lastBuildAt == 0
+                || System.currentTimeMillis() - lastBuildAt < rebuildIntervalMs) {
+            return;
+        }
+        rebuildAll();
+    }
+
+    /**
+     * 全量重建所有配置的索引
+     */
+    public synchronized void rebuildAll() {
+        for (String table : configured.keySet()) {
+            try {
+                build(table);
+            } catch (Exception e) {
+                log.warn("n-gram 索引构建失败, 表: {}, 原因: {}", table, e.getMessage());
+            }
+        }
+        lastBuildAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 解析请求中可由索引处理的模糊条件
+     * 多个关键字(逗号分隔)取并集,任一关键字无法由索引处理时该字段保留原 LIKE 条件
+     *
+     * @return 字段名 -> 满足条件的主键集合,无可处理字段时返回空Map
+     */
+    public Map<String, Collection<Object>> resolve(String table, Map<String, Object> params, TableSchema schema) {
+        Map<String, NgramIndex> tableIndexes = indexes.get(table);
+        if (tableIndexes == null) {
+            return Map.of();
+        }
+        Map<String, Collection<Object>> result = new HashMap<>();
+        tableIndexes.forEach((column, index) -> {
+            ColumnSchema searchColumn = schema.getSearchColumn(column);
+            String value = MapUtil.getStr(params, column);
+            if (searchColumn == null || searchColumn.getQueryRule() != QueryRuleEnum.LIKE || StrUtil.isEmpty(value)) {
+                return;
+            }
+            // 与 SqlWhereBuilder 的拆分方式保持一致: 多个值时逐个去除首尾空格
+            String[] keywords = value.contains(",") ? value.split(",") : new String[] { value };
+            if (keywords.length == 0) {
+                return;
+            }
+            Set<Object> ids = new LinkedHashSet<>();
+            for (String keyword : keywords) {
+                Set<Object> matched = index.search(keywords.length > 1 ? keyword.trim() : keyword, maxCandidates);
+                if (matched == null) {
+                    return;
+                }
+                ids.addAll(matched);
+                if (ids.size() > maxCandidates) {
+                    return;
+                }
+            }
+            result.put(column, ids);
+        });
+        return result;
+    }
+
+    /**
+     * 数据保存后按主键重新读取索引字段并更新索引,从主库读取以免读到复制延迟前的旧值
+     */
+    public void refresh(String table, Object id) {
+        List<String> columns = configured.get(table);
+        if (!enabled || columns == null || id == null) {
+            return;
+        }
+        Set<Object> waiting = pending.get(table);
+        if (waiting != null) {
+            waiting.add(id);
+        }
+        Map<String, NgramIndex> tableIndexes = indexes.get(table);
+        if (tableIndexes == null) {
+            return;
+        }
+        try {
+            String primaryKey = primaryKey(table);
+            List<Map<String, Object>> rows = readRouting.primary(() -> baseService.queryList(table, 0, 1,
+                    selectColumns(table, columns), null, table + ".`" + primaryKey + "` = #{params.id}", null, null,
+                    MapUtil.of("id", id)));
+            if (rows.isEmpty()) {
+                tableIndexes.values().forEach(index -> index.remove(id));
+                return;
+            }
+            Map<String, Object> row = rows.get(0);
+            tableIndexes.forEach((column, index) -> index.put(id, MapUtil.getStr(row, column)));
+        } catch (Exception e) {
+            log.warn("n-gram 索引增量更新失败, 表: {}, 主键: {}, 原因: {}", table, id, e.getMessage());
+        }
+    }
+
+    /**
+     * 数据删除后从索引中移除
+     */
+    public void remove(String table, Object id) {
+        if (!enabled || !configured.containsKey(table) || id == null) {
+            return;
+        }
+        Set<Object> waiting = pending.get(table);
+        if (waiting != null) {
+            waiting.add(id);
+        }
+        Map<String, NgramIndex> tableIndexes = indexes.get(table);
+        if (tableIndexes != null) {
+            tableIndexes.values().forEach(index -> index.remove(id));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxCandidates", maxCandidates);
+        Map<String, Object> tables = new LinkedHashMap<>();
+        configured.forEach((table, columns) -> {
+            Map<String, Object> tableStats = new LinkedHashMap<>();
+            Map<String, NgramIndex> tableIndexes = indexes.get(table);
+            tableStats.put("ready", tableIndexes != null);
+            tableStats.put("buildMs", buildMillis.get(table));
+            if (tableIndexes != null) {
+                tableIndexes.forEach((column, index) -> tableStats.put(column,
+                        MapUtil.builder().put("rows", index.size()).put("grams", index.gramCount()).build()));
+            }
+            tables.put(table, tableStats);
+        });
+        stats.put("tables", tables);
+        return stats;
+    }
+
+    /**
+     * 流式读取全表构建新索引后整体替换,构建期间的变更在替换后补做
+     */
+    private void build(String table) {
+        long start = System.currentTimeMillis();
+        List<String> columns = configured.get(table);
+        String primaryKey = primaryKey(table);
+        Map<String, NgramIndex> fresh = new LinkedHashMap<>();
+        columns.forEach(column -> fresh.put(column, new NgramIndex()));
+        pending.put(table, ConcurrentHashMap.newKeySet());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Cursor<Map<String, Object>> cursor = baseService.streamList(table,
+                        selectColumns(table, columns), null, null, null, null, null)) {
+                    for (Map<String, Object> row : cursor) {
+                        Object id = row.get(primaryKey);
+                        fresh.forEach((column, index) -> index.put(id, MapUtil.getStr(row, column)));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            indexes.put(table, fresh);
+        } finally {
+            Set<Object> changed = pending.remove(table);
+            if (changed != null && indexes.containsKey(table)) {
+                changed.forEach(id -> refresh(table, id));
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        buildMillis.put(table, elapsed);
+        log.info("n-gram 索引构建完成, 表: {}, 行数: {}, 耗时: {}ms", table,
+                fresh.values().iterator().next().size(), elapsed);
+    }
+
+    private String primaryKey(String table) {
+        return StrUtil.blankToDefault(baseService.getTableSchema(table).getPrimaryKey(), "id");
+    }
+
+    private String selectColumns(String table, List<String> columns) {
+        StringBuilder sb = new StringBuilder(table).append(".`").append(primaryKey(table)).append("`");
+        for (String column : columns) {
+            sb.append(", ").append(table).append(".`").append(column).append("`");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,255 @@
+package com.ycbd.demo.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * SQL 执行统计
+ * 将语句规范化为指纹(字面量、IN 列表与空白归一),按指纹以无锁计数器累计调用次数、耗时、最大耗时、
+ * 耗时分布与返回行数;超过阈值的语句连同绑定值记入慢查询日志,并保留最近若干条供查询。
+ * 绑定值默认只记录类型,开启 sql.stats.log-parameters 后记录实际值,其中形如 bcrypt 密码哈希的值始终脱敏
+ */
+@Slf4j
+@Component
+public class SqlStatsRegistry {
+
+    /** 耗时分布的上界(毫秒),最后一档为无穷大 */
+    private static final long[] BUCKETS_MS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+    /** 指纹数量超过上限后归入该键,避免内存无限增长 */
+    private static final String OTHER = "__other__";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w`.])-?\\d+(?:\\.\\d+)?(?![\\w`])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** bcrypt 哈希($2a$10$...) */
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[abxy]?\\$\\d{2}\\$.{53}$");
+    private static final String MASK = "******";
+
+    private final boolean enabled;
+    private final long slowThresholdMs;
+    private final int maxFingerprints;
+    private final int slowLogSize;
+    private final boolean logParameters;
+
+    private final Map<String, SqlStats> stats = new ConcurrentHashMap<>();
+    /** SQL 文本到指纹的缓存,参数化语句文本重复率高,避免每次执行都做正则替换 */
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> slowLog = new ArrayDeque<>();
+
+    public SqlStatsRegistry(@Value("${sql.stats.enabled:true}") boolean enabled,
+            @Value("${sql.stats.slow-threshold-ms:500}") long slowThresholdMs,
+            @Value("${sql.stats.max-fingerprints:2000}") int maxFingerprints,
+            @Value("${sql.stats.slow-log-size:100}") int slowLogSize,
+            @Value("${sql.stats.log-parameters:false}") boolean logParameters) {
+        this.enabled = enabled;
+        this.slowThresholdMs = slowThresholdMs;
+        this.maxFingerprints = maxFingerprints;
+        this.slowLogSize = slowLogSize;
+        this.logParameters = logParameters;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一次执行
+     *
+     * @param statementId Mapper 语句ID
+     * @param sql 最终 SQL
+     * @param parameters 绑定值,仅慢查询时取出
+     * @param elapsedNanos 耗时(纳秒)
+     * @param rows 返回或影响的行数
+     * @param failed 是否执行失败
+     */
+    public void record(String statementId, String sql, Supplier<Object[]> parameters, long elapsedNanos, long rows,
+            boolean failed) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = fingerprint(sql);
+            if (fingerprints.size() < maxFingerprints * 4) {
+                fingerprints.put(sql, fingerprint);
+            }
+        }
+        SqlStats entry = stats.get(fingerprint);
+        if (entry == null) {
+            if (stats.size() >= maxFingerprints) {
+                fingerprint = OTHER;
+            }
+            entry = stats.computeIfAbsent(fingerprint, k -> new SqlStats(statementId));
+        }
+        entry.record(elapsedNanos, rows, failed);
+
+        long elapsedMs = elapsedNanos / 1_000_000;
+        if (elapsedMs >= slowThresholdMs) {
+            String params = Arrays.toString(mask(parameters.get()));
+            log.warn("慢查询 {}ms [{}]: {} 参数: {}", elapsedMs, statementId, WHITESPACE.matcher(sql).replaceAll(" "), params);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("time", System.currentTimeMillis());
+            item.put("statementId", statementId);
+            item.put("elapsedMs", elapsedMs);
+            item.put("sql", WHITESPACE.matcher(sql).replaceAll(" ").trim());
+            item.put("parameters", params);
+            synchronized (slowLog) {
+                slowLog.addFirst(item);
+                while (slowLog.size() > slowLogSize) {
+                    slowLog.removeLast();
+                }
+            }
+        }
+    }
+
+    /**
+     * 按指定维度排序的统计列表
+     *
+     * @param sort 排序维度: total(总耗时,默认)/count/max/avg/rows
+     * @param limit 返回条数
+     */
+    public List<Map<String, Object>> snapshot(String sort, int limit) {
+        Comparator<Map<String, Object>> comparator = Comparator.comparingDouble(
+                m -> ((Number) m.getOrDefault(sortKey(sort), 0)).doubleValue());
+        return stats.entrySet().stream()
+                .map(e -> e.getValue().toMap(e.getKey()))
+                .sorted(comparator.reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public List<Map<String, Object>> slowQueries() {
+        synchronized (slowLog) {
+            return new ArrayList<>(slowLog);
+        }
+    }
+
+    /**
+     * 清空统计与慢查询记录
+     */
+    public void reset() {
+        stats.clear();
+        fingerprints.clear();
+        synchronized (slowLog) {
+            slowLog.clear();
+        }
+    }
+
+    /**
+     * 脱敏绑定值: 未开启 log-parameters 时只保留类型名,开启时 bcrypt 哈希仍替换为掩码
+     */
+    private Object[] mask(Object[] values) {
+        Object[] masked = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                masked[i] = null;
+            } else if (!logParameters) {
+                masked[i] = "<" + value.getClass().getSimpleName() + ">";
+            } else if (value instanceof CharSequence && BCRYPT_HASH.matcher((CharSequence) value).matches()) {
+                masked[i] = MASK;
+            } else {
+                masked[i] = value;
+            }
+        }
+        return masked;
+    }
+
+    /**
+     * 规范化语句: 字符串与数值字面量替换为 ?,多值 IN 列表合并为 (?+),空白归一
+     */
+    static String fingerprint(String sql) {
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        return IN_LIST.matcher(result).replaceAll("(?+)");
+    }
+
+    private static String sortKey(String sort) {
+        switch (sort == null ? "" : sort) {
+            case "count":
+                return "count";
+            case "max":
+                return "maxMs";
+            case "avg":
+                return "avgMs";
+            case "rows":
+                return "rows";
+            default:
+                return "totalMs";
+        }
+    }
+
+    /**
+     * 单个指纹的统计
+     */
+    private static class SqlStats {
+        private final String statementId;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[BUCKETS_MS.length + 1];
+
+        SqlStats(String statementId) {
+            this.statementId = statementId;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long elapsedNanos, long rowCount, boolean failed) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            if (failed) {
+                errors.increment();
+            }
+            long elapsedMs = elapsedNanos / 1_000_000;
+            int bucket = 0;
+            while (bucket < BUCKETS_MS.length && elapsedMs >= BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket].increment();
+        }
+
+        Map<String, Object> toMap(String fingerprint) {
+            long calls = count.sum();
+            double totalMs = totalNanos.sum() / 1_000_000d;
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("fingerprint", fingerprint);
+            map.put("statementId", statementId);
+            map.put("count", calls);
+            map.put("errors", errors.sum());
+            map.put("totalMs", totalMs);
+            map.put("avgMs", calls == 0 ? 0d : totalMs / calls);
+            map.put("maxMs", maxNanos.get() / 1_000_000d);
+            map.put("rows", rows.sum());
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < histogram.length; i++) {
+                buckets.put(i < BUCKETS_MS.length ? "<" + BUCKETS_MS[i] + "ms" : ">=" + BUCKETS_MS[BUCKETS_MS.length - 1] + "ms",
+                        histogram[i].sum());
+            }
+            map.put("histogram", buckets);
+            return map;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.ycbd.demo.service.validator;
 
-import cn.hutool.core.map.MapUtil;
+import com.ycbd.demo.model.ColumnSchema;
 import org.springframework.stereotype.Component;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -8,26 +8,31 @@ import java.util.regex.Pattern;
 @Component
 public class AttributeValidator {
     
-    public List<String> validate(List<Map<String, Object>> attributes, Map<String, Object> data) {
+    /**
+     * 校验字段属性
+     * @param columns 需要校验的列
+     * @param data 待校验数据
+     * @return 错误信息列表
+     */
+    public List<String> validate(List<ColumnSchema> columns, Map<String, Object> data) {
         List<String> errors = new ArrayList<>();
         
-        for (Map<String, Object> attr : attributes) {
-            String name = MapUtil.getStr(attr, "name");
-            int required = MapUtil.getInt(attr, "IsRequired", 0);
-            String fieldType = MapUtil.getStr(attr, "fieldType");
-            int len = MapUtil.getInt(attr, "len", 0);
-            String params = MapUtil.getStr(attr, "params", null); // 获取范围参数
+        for (ColumnSchema column : columns) {
+            String name = column.getName();
+            String fieldType = column.getFieldType();
+            int len = column.getLen();
+            String params = null; // column_attribute 暂无范围参数列
             
             Object value = data.get(name);
             
             // 必填检查
-            if (required == 1 && (value == null || value.toString().trim().isEmpty())) {
+            if (column.isRequired() && (value == null || value.toString().trim().isEmpty())) {
                 errors.add(String.format("字段 %s 为必填项，不能为空", name));
                 continue;
             }
             
             // 类型检查
-            if (value != null && !value.toString().trim().isEmpty()) {
+            if (fieldType != null && value != null && !value.toString().trim().isEmpty()) {
                 validateFieldType(name, value.toString(), fieldType, len, params, errors);
             }
         }
@@ -36,7 +41,7 @@ public class AttributeValidator {
     }
     
     private void validateFieldType(String name, String value, String fieldType, int len, String params, List<String> errors) {
-        switch (fieldType.toLowerCase()) {
+        switch (fieldType) {
             case "datetime":
             case "date":
                 if (!isValidDate(value)) {
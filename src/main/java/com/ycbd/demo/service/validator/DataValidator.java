@@ -1,5 +1,6 @@
 package com.ycbd.demo.service.validator;
 
+import com.ycbd.demo.model.ColumnSchema;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import java.util.*;
@@ -11,11 +12,11 @@ public class DataValidator {
     private final AttributeValidator attributeValidator;
     private final RuleValidator ruleValidator;
     
-    public ValidationResult validate(String table, Map<String, Object> data, List<Map<String, Object>> attributes) {
+    public ValidationResult validate(String table, Map<String, Object> data, List<ColumnSchema> columns) {
         ValidationResult result = new ValidationResult();
         
         // 基本属性验证
-        List<String> attributeErrors = attributeValidator.validate(attributes, data);
+        List<String> attributeErrors = attributeValidator.validate(columns, data);
         result.getErrors().addAll(attributeErrors);
         
         // 规则验证
@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.model.CheckRule;
+import com.ycbd.demo.service.cache.MetadataCache;
 import java.util.*;
 
 /**
@@ -18,6 +20,8 @@ public class RuleValidator {
     
     // 系统映射器,用于数据库操作
     private final SystemMapper systemMapper;
+    // 元数据缓存,提供编译后的校验规则
+    private final MetadataCache metadataCache;
     
     /**
      * 验证数据是否符合规则
@@ -28,37 +32,30 @@ public class RuleValidator {
     public List<String> validate(String table, Map<String, Object> data) {
         // 存储错误信息
         List<String> errors = new ArrayList<>();
-        // 获取表的所有校验规则
-        List<Map<String, Object>> rules = systemMapper.findColumnCheckRules(table);
+        // 获取表的所有校验规则(已编译并缓存)
+        List<CheckRule> rules = metadataCache.getCheckRules(table);
         
         // 遍历每个规则进行验证
-        for (Map<String, Object> rule : rules) {
+        for (CheckRule rule : rules) {
             try {
-                // 获取规则相关参数
-                String mode = MapUtil.getStr(rule, "check_mode");        // 校验模式
-                String column = MapUtil.getStr(rule, "check_column");    // 校验字段
-                String errorMsg = MapUtil.getStr(rule, "errorMsg");      // 错误信息
-                String targetTable = MapUtil.getStr(rule, "target_table"); // 目标表名
-
                 // 根据不同的校验模式执行相应的验证
-                switch (mode) {
-                    case "isExit":     // 存在性验证
-                    case "isNotExit":  // 不存在性验证
-                        validateExistence(targetTable, column, data, rule, mode, errorMsg, errors);
+                switch (rule.getMode()) {
+                    case IS_EXIT:      // 存在性验证
+                    case IS_NOT_EXIT:  // 不存在性验证
+                        validateExistence(rule, data, errors);
                         break;
-                    case "MutiReapeat": // 多字段重复验证
-                        validateMultipleFields(targetTable, column, data, errorMsg, errors);
+                    case MUTI_REPEAT:  // 多字段重复验证
+                        validateMultipleFields(rule, data, errors);
                         break;
-                    case "isRang":      // 范围验证
-                        validateRange(column, data, errorMsg, errors);
+                    case IS_RANG:      // 范围验证
+                        validateRange(rule, data, errors);
                         break;
                     default:
-                        log.warn("未知的校验规则类型: {}", mode);
+                        log.warn("未知的校验规则类型: {}", rule.getModeName());
                 }
             } catch (Exception e) {
                 // 记录异常但继续执行其他规则
-                String errorDetail = String.format("规则校验异常[%s]: %s", 
-                    MapUtil.getStr(rule, "check_mode"), e.getMessage());
+                String errorDetail = String.format("规则校验异常[%s]: %s", rule.getModeName(), e.getMessage());
                 log.error(errorDetail, e);
                 errors.add(errorDetail);
             }
@@ -69,35 +66,31 @@ public class RuleValidator {
     
     /**
      * 验证数据的存在性
-     * @param table 目标表名
-     * @param column 校验字段
+     * @param rule 验证规则(isExit/isNotExit)
      * @param data 待验证数据
-     * @param rule 验证规则
-     * @param mode 验证模式(isExit/isNotExit)
-     * @param errorMsg 错误信息
      * @param errors 错误信息列表
      */
-    private void validateExistence(String table, String column, Map<String, Object> data, Map<String, Object> rule, 
-                                 String mode, String errorMsg, List<String> errors) {
+    private void validateExistence(CheckRule rule, Map<String, Object> data, List<String> errors) {
+        String table = rule.getTargetTable();
+        String column = rule.getColumn();
         try {
-            // 处理额外的where条件
-            String whereStr = MapUtil.getStr(rule, "whereStr");
             String value = MapUtil.getStr(data, column);
-            whereStr = whereStr.replaceFirst("%s", "'" + value + "'"); // 替换为字符串
-            // 统计符合条件的记录数
-            int count = systemMapper.countByWhere(table, whereStr);
+            // 统计符合条件的记录数,校验值通过参数绑定传入
+            Map<String, Object> params = new HashMap<>();
+            params.put(CheckRule.VALUE_PARAM, value);
+            int count = systemMapper.countByWhere(table, rule.getWhereTemplate(), params);
 
             // 根据验证模式判断结果
-            if ("isExit".equals(mode) && count == 0) {
+            if (rule.getMode() == CheckRule.Mode.IS_EXIT && count == 0) {
                 // 应该存在但不存在
-                String error = String.format("数据不存在[%s.%s]: %s, 提供的值: %s", table, column, errorMsg, value);
+                String error = String.format("数据不存在[%s.%s]: %s, 提供的值: %s", table, column, rule.getErrorMsg(), value);
                 errors.add(error);
                 log.warn(error);
             }
 
-            if ("isNotExit".equals(mode) && count > 0) {
+            if (rule.getMode() == CheckRule.Mode.IS_NOT_EXIT && count > 0) {
                 // 不应该存在但存在
-                String error = String.format("数据已存在[%s.%s]: %s, 提供的值: %s", table, column, errorMsg, value);
+                String error = String.format("数据已存在[%s.%s]: %s, 提供的值: %s", table, column, rule.getErrorMsg(), value);
                 errors.add(error);
                 log.warn(error);
             }
@@ -110,22 +103,19 @@ public class RuleValidator {
     
     /**
      * 验证多个字段是否重复
-     * @param table 目标表名
-     * @param columnName 字段名列表(逗号分隔)
+     * @param rule 验证规则,check_column 为逗号分隔的字段名列表
      * @param data 待验证数据
-     * @param errorMsg 错误信息
      * @param errors 错误信息列表
      */
-    private void validateMultipleFields(String table, String columnName, 
-            Map<String, Object> data, String errorMsg, List<String> errors) {
+    private void validateMultipleFields(CheckRule rule, Map<String, Object> data, List<String> errors) {
+        String columnName = rule.getColumn();
         try {
-            // 分割字段名
-            String[] columns = columnName.split(",");
+            String[] columns = rule.getColumns();
             Set<Object> values = new HashSet<>();
             
             // 收集所有字段的值
             for (String column : columns) {
-                Object value = data.get(column.trim());
+                Object value = data.get(column);
                 if (value != null) {
                     values.add(value);
                 }
@@ -133,7 +123,7 @@ public class RuleValidator {
 
             // 如果去重后的值数量小于字段数,说明有重复值
             if (values.size() < columns.length) {
-                String error = String.format("字段重复[%s]: %s", columnName, errorMsg);
+                String error = String.format("字段重复[%s]: %s", columnName, rule.getErrorMsg());
                 errors.add(error);
                 log.warn(error);
             }
@@ -146,20 +136,21 @@ public class RuleValidator {
     
     /**
      * 验证字段值是否在指定范围内
-     * @param columnName 字段名
+     * @param rule 验证规则,范围取自 params 中的 min/max
      * @param data 待验证数据
-     * @param errorMsg 错误信息
      * @param errors 错误信息列表
      */
-    private void validateRange(String columnName, Map<String, Object> data, String errorMsg, List<String> errors) {
+    private void validateRange(CheckRule rule, Map<String, Object> data, List<String> errors) {
+        String columnName = rule.getColumn();
         try {
             Object value = data.get(columnName);
             // 只验证数字类型的值
             if (value instanceof Number) {
                 double numericValue = ((Number) value).doubleValue();
-                // 验证值是否在18到60之间
-                if (numericValue < 18 || numericValue > 60) {
-                    String error = String.format("字段 %s 超出范围: %s", columnName, errorMsg);
+                // 验证值是否在配置的范围内
+                if ((rule.getMin() != null && numericValue < rule.getMin())
+                        || (rule.getMax() != null && numericValue > rule.getMax())) {
+                    String error = String.format("字段 %s 超出范围: %s", columnName, rule.getErrorMsg());
                     errors.add(error);
                     log.warn(error);
                 }
@@ -0,0 +1,3 @@
+-- 已有库升级: autoselect 增加选项缓存配置
+ALTER TABLE `autoselect`
+  ADD COLUMN `cacheSeconds` int(11) COMMENT '选项缓存秒数,0-不缓存,为空取默认值';
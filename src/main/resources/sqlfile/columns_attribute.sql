@@ -19,6 +19,12 @@ CREATE TABLE IF NOT EXISTS `table_attribute` (
   `roleFlag` tinyint(1) DEFAULT 0 COMMENT '是否角色控制,0-否,1-是',
   `joinStr` varchar(500) COMMENT '关联',
   `definColumns` varchar(500) COMMENT '自定义字段',
+  `countMode` varchar(20) COMMENT '列表总数统计方式,exact/cached/estimated/none,默认exact',
+  `countCacheSeconds` int(11) COMMENT 'countMode=cached 时总数缓存秒数',
+  `listCache` tinyint(1) DEFAULT 0 COMMENT '列表结果缓存,0-否,1-是',
+  `listCacheSeconds` int(11) COMMENT '列表结果缓存秒数',
+  `rowCache` tinyint(1) DEFAULT 0 COMMENT '详情行缓存,0-否,1-是',
+  `etagVersion` tinyint(1) DEFAULT 0 COMMENT '条件GET按表版本号判断是否变化,0-否(按结果摘要),1-是',
   PRIMARY KEY (`dbtable`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='表属性配置表';
 
@@ -103,5 +109,6 @@ CREATE TABLE IF NOT EXISTS `autoselect` (
   `columnChar` varchar(100) COMMENT '字符查询的字段名',
   `columnInt` varchar(100) COMMENT '整数查询的字段名',
   `columnOther` varchar(100) COMMENT '其它类型的查询字段名',
+  `cacheSeconds` int(11) COMMENT '选项缓存秒数,0-不缓存,为空取默认值',
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='自动选择配置表';
@@ -0,0 +1,9 @@
+-- 元数据版本表
+-- 通过 CommonService 保存/删除 column_attribute、table_attribute 等配置表时递增对应业务表的版本号,
+-- 各节点定时轮询本表,只失效版本发生变化的表的本地元数据及相关缓存。table_name 为 * 时表示全部表
+CREATE TABLE IF NOT EXISTS `metadata_version` (
+  `table_name` varchar(100) NOT NULL COMMENT '业务表名,*表示全部',
+  `version` bigint(20) NOT NULL DEFAULT 0 COMMENT '版本号',
+  `update_time` bigint(20) DEFAULT NULL COMMENT '更新时间',
+  PRIMARY KEY (`table_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='元数据版本表';
@@ -0,0 +1,21 @@
+-- 数据字典表
+-- column_attribute.classcode 对应本表 classcode,列表与详情接口返回时将编码值翻译为名称
+CREATE TABLE IF NOT EXISTS `sys_dict` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `classcode` varchar(100) NOT NULL COMMENT '字典代码',
+  `item_value` varchar(100) NOT NULL COMMENT '字典项值',
+  `item_label` varchar(200) NOT NULL COMMENT '字典项名称',
+  `order_no` int(11) DEFAULT 0 COMMENT '排序',
+  `status` tinyint(4) NOT NULL DEFAULT '1' COMMENT '状态,1-正常 0-禁用',
+  `create_by` bigint(20) COMMENT '创建人ID',
+  `update_by` bigint(20) COMMENT '更新人ID',
+  `create_time` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_classcode_value` (`classcode`, `item_value`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='数据字典表';
+
+-- 初始化字典数据
+INSERT INTO `sys_dict` (`classcode`, `item_value`, `item_label`, `order_no`) VALUES
+('status', '1', '正常', 1),
+('status', '0', '禁用', 2);
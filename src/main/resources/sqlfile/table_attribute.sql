@@ -1 +1,17 @@
-table_attribute
\ No newline at end of file
+-- 已有库升级: table_attribute 增加列表总数统计配置
+ALTER TABLE `table_attribute`
+  ADD COLUMN `countMode` varchar(20) COMMENT '列表总数统计方式,exact/cached/estimated/none,默认exact',
+  ADD COLUMN `countCacheSeconds` int(11) COMMENT 'countMode=cached 时总数缓存秒数';
+
+-- 已有库升级: table_attribute 增加列表结果缓存配置
+ALTER TABLE `table_attribute`
+  ADD COLUMN `listCache` tinyint(1) DEFAULT 0 COMMENT '列表结果缓存,0-否,1-是',
+  ADD COLUMN `listCacheSeconds` int(11) COMMENT '列表结果缓存秒数';
+
+-- 已有库升级: table_attribute 增加详情行缓存配置
+ALTER TABLE `table_attribute`
+  ADD COLUMN `rowCache` tinyint(1) DEFAULT 0 COMMENT '详情行缓存,0-否,1-是';
+
+-- 已有库升级: table_attribute 增加条件GET(ETag)配置
+ALTER TABLE `table_attribute`
+  ADD COLUMN `etagVersion` tinyint(1) DEFAULT 0 COMMENT '条件GET按表版本号判断是否变化,0-否(按结果摘要),1-是';
@@ -0,0 +1,181 @@
+package com.ycbd.demo.config.datasource;
+
+import com.ycbd.demo.interceptor.ServiceInterceptorAspect;
+import com.ycbd.demo.service.AsyncLogService;
+import com.ycbd.demo.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 读写分离路由测试
+ * 以两个内嵌 H2 库分别作为主库与只读库,各自的 node 表记录库名,通过查询结果判断实际路由到的库
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final long READ_YOUR_WRITES_MS = 300;
+
+    private ReadWriteRoutingDataSource routing;
+    private ReadRouting readRouting;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate replicaTemplate;
+    private ServiceInterceptorAspect serviceInterceptor;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        routing = new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica),
+                ReadWriteRoutingDataSource.Strategy.ROUND_ROBIN);
+        routing.afterPropertiesSet();
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("dataSource", routing);
+        readRouting = new ReadRouting(beanFactory.getBeanProvider(ReadWriteRoutingDataSource.class),
+                READ_YOUR_WRITES_MS, 100);
+        jdbcTemplate = new JdbcTemplate(routing);
+        replicaTemplate = new JdbcTemplate(replica);
+
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", "routing-test-secret");
+        ReflectionTestUtils.setField(jwtService, "expireTime", 60_000L);
+        serviceInterceptor = new ServiceInterceptorAspect();
+        ReflectionTestUtils.setField(serviceInterceptor, "jwtService", jwtService);
+        ReflectionTestUtils.setField(serviceInterceptor, "asyncLogService", Mockito.mock(AsyncLogService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        replicaTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readsGoToReplica() {
+        assertEquals("replica", readRouting.read(this::currentNode));
+        assertEquals(1L, replicaStats().get("routed"));
+    }
+
+    @Test
+    void writesAndPlainQueriesGoToPrimary() {
+        jdbcTemplate.update("INSERT INTO node (name) VALUES ('written')");
+
+        assertEquals("primary", currentNode());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM node", Integer.class));
+        assertEquals(1, replicaTemplate.queryForObject("SELECT COUNT(*) FROM node", Integer.class));
+    }
+
+    @Test
+    void readsInsideTransactionGoToPrimary() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        String node = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("INSERT INTO node (name) VALUES ('uncommitted')");
+            return readRouting.read(this::currentNode);
+        });
+
+        assertEquals("primary", node);
+        assertEquals(0L, replicaStats().get("routed"));
+    }
+
+    @Test
+    void primaryScopeOverridesReplica() {
+        assertEquals("primary", readRouting.primary(() -> readRouting.read(this::currentNode)));
+    }
+
+    @Test
+    void readYourWritesWindow() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest writer = login(7);
+        try {
+            assertTrue(serviceInterceptor.preHandle(writer, response, null));
+            assertEquals("replica", readRouting.read(this::currentNode));
+
+            readRouting.markWrite();
+            assertTrue(readRouting.isPrimaryRequired());
+            assertEquals("primary", readRouting.read(this::currentNode));
+
+            // 窗口期结束后重新走只读库
+            Thread.sleep(READ_YOUR_WRITES_MS + 100);
+            assertEquals("replica", readRouting.read(this::currentNode));
+        } finally {
+            serviceInterceptor.afterCompletion(writer, response, null, null);
+        }
+    }
+
+    @Test
+    void readYourWritesOnlyAffectsWriter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest writer = login(7);
+        try {
+            serviceInterceptor.preHandle(writer, response, null);
+            readRouting.markWrite();
+        } finally {
+            serviceInterceptor.afterCompletion(writer, response, null, null);
+        }
+
+        MockHttpServletRequest other = login(8);
+        try {
+            serviceInterceptor.preHandle(other, response, null);
+            assertEquals("replica", readRouting.read(this::currentNode));
+        } finally {
+            serviceInterceptor.afterCompletion(other, response, null, null);
+        }
+    }
+
+    @Test
+    void recentlyWrittenTablesWindow() throws Exception {
+        readRouting.markWrite("node");
+        assertTrue(readRouting.isRecentlyWritten(List.of("other", "node")));
+        assertFalse(readRouting.isRecentlyWritten(List.of("other")));
+        // 表窗口不影响普通读取的路由
+        assertEquals("replica", readRouting.read(this::currentNode));
+
+        Thread.sleep(READ_YOUR_WRITES_MS + 100);
+        assertFalse(readRouting.isRecentlyWritten(List.of("node")));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node ORDER BY id LIMIT 1", String.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> replicaStats() {
+        return ((List<Map<String, Object>>) routing.stats().get("replicas")).get(0);
+    }
+
+    private MockHttpServletRequest login(int userId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", userId);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/common/list");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(payload));
+        return request;
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS node (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50))");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
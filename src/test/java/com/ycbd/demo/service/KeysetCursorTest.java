@@ -0,0 +1,168 @@
+package com.ycbd.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 游标分页定位条件测试
+ * MySQL 中 NULL 视为最小值: 升序排在最前,降序排在最后
+ */
+class KeysetCursorTest {
+
+    private static final String SORT = "t.`score`";
+    private static final String ID = "t.`id`";
+
+    @Test
+    void ascendingAfterValue() {
+        KeysetCursor cursor = KeysetCursor.of("t", "score ASC", "id");
+        Map<String, Object> params = new HashMap<>();
+        String seek = cursor.buildSeekCondition(cursor.encode(row(3, 7)), params);
+
+        assertEquals("(" + SORT + " > #{params._keysetSort} OR (" + SORT + " = #{params._keysetSort} AND "
+                + ID + " > #{params._keysetId}))", seek);
+        assertEquals(3, params.get("_keysetSort"));
+        assertEquals(7, params.get("_keysetId"));
+        assertEquals(SORT + " ASC, " + ID + " ASC", cursor.getOrderBy());
+    }
+
+    @Test
+    void ascendingAfterNull() {
+        KeysetCursor cursor = KeysetCursor.of("t", "score", "id");
+        Map<String, Object> params = new HashMap<>();
+        // 查询结果不含值为 NULL 的列
+        String seek = cursor.buildSeekCondition(cursor.encode(row(null, 7)), params);
+
+        assertEquals("((" + SORT + " IS NULL AND " + ID + " > #{params._keysetId}) OR " + SORT + " IS NOT NULL)", seek);
+        assertFalse(params.containsKey("_keysetSort"));
+        assertEquals(7, params.get("_keysetId"));
+    }
+
+    @Test
+    void descendingAfterValue() {
+        KeysetCursor cursor = KeysetCursor.of("t", "t.score DESC", "id");
+        Map<String, Object> params = new HashMap<>();
+        String seek = cursor.buildSeekCondition(cursor.encode(row(3, 7)), params);
+
+        assertEquals("(" + SORT + " < #{params._keysetSort} OR (" + SORT + " = #{params._keysetSort} AND "
+                + ID + " < #{params._keysetId}) OR " + SORT + " IS NULL)", seek);
+        assertEquals(3, params.get("_keysetSort"));
+        assertEquals(SORT + " DESC, " + ID + " DESC", cursor.getOrderBy());
+    }
+
+    @Test
+    void descendingAfterNull() {
+        KeysetCursor cursor = KeysetCursor.of("t", "score DESC, id DESC", "id");
+        Map<String, Object> params = new HashMap<>();
+        String seek = cursor.buildSeekCondition(cursor.encode(row(null, 7)), params);
+
+        assertEquals("(" + SORT + " IS NULL AND " + ID + " < #{params._keysetId})", seek);
+        assertFalse(params.containsKey("_keysetSort"));
+    }
+
+    @Test
+    void dateValuesAreEncodedAsComparableStrings() {
+        KeysetCursor cursor = KeysetCursor.of("t", "score DESC", "id");
+        Map<String, Object> params = new HashMap<>();
+        cursor.buildSeekCondition(cursor.encode(row(LocalDateTime.of(2024, 5, 1, 8, 30), 7)), params);
+
+        assertEquals("2024-05-01 08:30:00.000", params.get("_keysetSort"));
+    }
+
+    @Test
+    void primaryKeySortUsesSingleColumn() {
+        KeysetCursor cursor = KeysetCursor.of("t", "id DESC", "id");
+        Map<String, Object> params = new HashMap<>();
+
+        assertEquals(ID + " < #{params._keysetId}", cursor.buildSeekCondition(cursor.encode(row(null, 7)), params));
+        assertEquals(ID + " DESC", cursor.getOrderBy());
+    }
+
+    @Test
+    void rejectsUnsupportedSorts() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of("t", "dept.name DESC", "id"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of("t", "score DESC, name ASC", "id"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of("t", "score DESC, id ASC", "id"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of("t", "FIELD(status, 1, 2)", "id"));
+    }
+
+    @Test
+    void rejectsInvalidCursor() {
+        KeysetCursor cursor = KeysetCursor.of("t", "score", "id");
+        assertThrows(IllegalArgumentException.class, () -> cursor.buildSeekCondition("not-a-cursor", new HashMap<>()));
+        assertThrows(IllegalArgumentException.class, () -> cursor.encode(row(3, null)));
+    }
+
+    @Test
+    void pagesThroughNullsInDatabaseOrder() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:keyset;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(dataSource);
+        jdbc.getJdbcTemplate().execute("CREATE TABLE t (id INT PRIMARY KEY, score INT)");
+        try {
+            Integer[] scores = {5, null, 3, null, 5, 1, null, 3};
+            for (int i = 0; i < scores.length; i++) {
+                jdbc.update("INSERT INTO t (id, score) VALUES (:id, :score)",
+                        new MapSqlParameterSource("id", i + 1).addValue("score", scores[i]));
+            }
+            for (String sort : new String[] {"score ASC", "score DESC"}) {
+                KeysetCursor cursor = KeysetCursor.of("t", sort, "id");
+                String orderBy = cursor.getOrderBy().replace("`", "");
+                List<Integer> expected = jdbc.getJdbcTemplate().queryForList(
+                        "SELECT id FROM t ORDER BY " + orderBy, Integer.class);
+
+                // 每页 3 行,逐页以上一页最后一行的游标定位
+                List<Integer> paged = new ArrayList<>();
+                String next = null;
+                do {
+                    Map<String, Object> params = new HashMap<>();
+                    String where = next == null ? "" : " WHERE " + cursor.buildSeekCondition(next, params)
+                            .replace("`", "").replace("#{params.", ":").replace("}", "");
+                    List<Map<String, Object>> rows = jdbc.queryForList(
+                            "SELECT id, score FROM t" + where + " ORDER BY " + orderBy + " LIMIT 3", params);
+                    rows.forEach(r -> paged.add((Integer) r.get("ID")));
+                    next = rows.size() < 3 ? null : cursor.encode(lowerCaseNonNull(rows.get(rows.size() - 1)));
+                } while (next != null);
+
+                assertEquals(expected, paged, sort);
+            }
+        } finally {
+            jdbc.getJdbcTemplate().execute("DROP ALL OBJECTS");
+        }
+    }
+
+    /**
+     * 模拟 MyBatis 结果: 列名小写且不含值为 NULL 的列
+     */
+    private static Map<String, Object> lowerCaseNonNull(Map<String, Object> row) {
+        Map<String, Object> result = new HashMap<>();
+        row.forEach((k, v) -> {
+            if (v != null) {
+                result.put(k.toLowerCase(), v);
+            }
+        });
+        return result;
+    }
+
+    private static Map<String, Object> row(Object score, Object id) {
+        Map<String, Object> row = new HashMap<>();
+        if (score != null) {
+            row.put("score", score);
+        }
+        if (id != null) {
+            row.put("id", id);
+        }
+        return row;
+    }
+}
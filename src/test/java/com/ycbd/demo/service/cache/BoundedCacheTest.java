@@ -0,0 +1,46 @@
+package com.ycbd.demo.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 有界缓存测试
+ */
+class BoundedCacheTest {
+
+    private final BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+
+    @Test
+    void loadsAndCaches() {
+        assertEquals("v1", cache.get("k", k -> "v1"));
+        assertEquals("v1", cache.get("k", k -> "v2"));
+    }
+
+    @Test
+    void invalidateDuringLoadDiscardsValue() {
+        // 加载期间发生失效,加载结果只返回给本次调用,不写入缓存
+        assertEquals("old", cache.get("k", k -> {
+            cache.invalidate(k);
+            return "old";
+        }));
+        assertNull(cache.get("k"));
+        assertEquals("new", cache.get("k", k -> "new"));
+    }
+
+    @Test
+    void clearDuringLoadDiscardsValue() {
+        cache.get("k", k -> {
+            cache.clear();
+            return "old";
+        });
+        assertNull(cache.get("k"));
+
+        cache.get("k", k -> {
+            cache.invalidateIf(key -> key.startsWith("other"));
+            return "old";
+        });
+        assertNull(cache.get("k"));
+    }
+}
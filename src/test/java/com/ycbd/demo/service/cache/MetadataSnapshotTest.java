@@ -0,0 +1,69 @@
+package com.ycbd.demo.service.cache;
+
+import com.ycbd.demo.model.ColumnAttribute;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 元数据快照读写测试
+ */
+class MetadataSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void preservesValueTypes() throws Exception {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("dbtable", "sys_user");
+        config.put("pageSize", 20);
+        config.put("rowCount", 123456789012L);
+        config.put("listCache", true);
+        config.put("ratio", new BigDecimal("0.75"));
+        config.put("createTime", LocalDateTime.of(2024, 5, 1, 8, 30, 15, 123_000_000));
+        config.put("updateTime", Timestamp.valueOf("2024-05-02 09:00:00.456"));
+        config.put("remark", null);
+
+        Path path = dir.resolve("metadata.snapshot");
+        snapshot(1, config).write(path);
+        MetadataSnapshot read = MetadataSnapshot.read(path);
+
+        Map<String, Object> restored = read.getTables().get("sys_user").getConfig();
+        assertEquals(config, restored);
+        assertEquals(Integer.class, restored.get("pageSize").getClass());
+        assertEquals(Long.class, restored.get("rowCount").getClass());
+        assertEquals(Boolean.class, restored.get("listCache").getClass());
+        assertNull(restored.get("remark"));
+        assertEquals("name", read.getTables().get("sys_user").getColumns().get(0).getName());
+    }
+
+    @Test
+    void rewritesExistingFileAfterRead() throws Exception {
+        Path path = dir.resolve("metadata.snapshot");
+        snapshot(1, Map.of("dbtable", "sys_user")).write(path);
+        MetadataSnapshot.read(path);
+
+        // 读取后文件不被占用,可原子替换
+        snapshot(2, Map.of("dbtable", "sys_user")).write(path);
+        assertEquals(2L, MetadataSnapshot.read(path).getTables().get("sys_user").getVersion());
+    }
+
+    private static MetadataSnapshot snapshot(long version, Map<String, Object> config) {
+        ColumnAttribute column = new ColumnAttribute();
+        column.setName("name");
+        Map<String, MetadataSnapshot.TableEntry> tables = new LinkedHashMap<>();
+        tables.put("sys_user", new MetadataSnapshot.TableEntry(version, config, List.of(column), List.of()));
+        return new MetadataSnapshot(System.currentTimeMillis(), 0, tables);
+    }
+}
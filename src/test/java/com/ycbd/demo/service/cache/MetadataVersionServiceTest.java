@@ -0,0 +1,173 @@
+package com.ycbd.demo.service.cache;
+
+import com.ycbd.demo.config.datasource.ReadRouting;
+import com.ycbd.demo.mapper.SystemMapper;
+import com.ycbd.demo.service.BaseService;
+import com.ycbd.demo.service.CommonService;
+import com.ycbd.demo.service.JwtService;
+import com.ycbd.demo.service.ListCountService;
+import com.ycbd.demo.service.OptionsService;
+import com.ycbd.demo.service.search.NgramIndexService;
+import com.ycbd.demo.service.validator.DataValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 元数据版本跨节点同步测试
+ * 两个节点共用一个内嵌 H2 库(MySQL 兼容模式)中的 metadata_version 表,
+ * 一个节点递增版本后,另一个节点轮询发布元数据变化事件,并由通用服务按本地写入的方式失效各级缓存
+ */
+class MetadataVersionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SystemMapper systemMapper;
+    private final List<MetadataChangedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:metadata_version;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("sqlfile/metadata_version.sql"));
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/SystemMapper.xml"));
+        systemMapper = new SqlSessionTemplate(factoryBean.getObject()).getMapper(SystemMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void bumpIncrementsVersion() {
+        MetadataVersionService node = node(event -> events.add((MetadataChangedEvent) event));
+        node.bump("sys_user");
+        node.bump("sys_user");
+        node.bump(null);
+
+        Map<String, Long> versions = node.loadVersions();
+        assertEquals(2L, versions.get("sys_user"));
+        assertEquals(1L, versions.get(MetadataVersionService.ALL_TABLES));
+    }
+
+    @Test
+    void pollPublishesRemoteChanges() {
+        MetadataVersionService writer = node(event -> { });
+        MetadataVersionService reader = node(event -> events.add((MetadataChangedEvent) event));
+        writer.bump("sys_user");
+        writer.bump("sys_role");
+
+        // 首次轮询只记录版本号
+        reader.poll();
+        assertTrue(events.isEmpty());
+        assertEquals(1L, reader.getKnownVersions().get("sys_user"));
+
+        writer.bump("sys_user");
+        reader.poll();
+        assertEquals(List.of("sys_user"), tables());
+
+        // 版本未变化时不再发布
+        reader.poll();
+        assertEquals(1, events.size());
+
+        writer.bump(null);
+        reader.poll();
+        assertEquals(Arrays.asList("sys_user", null), tables());
+    }
+
+    @Test
+    void remoteChangeInvalidatesLikeLocalWrite() {
+        MetadataCache metadataCache = mock(MetadataCache.class);
+        ListCountService listCountService = mock(ListCountService.class);
+        ListResultCache listResultCache = mock(ListResultCache.class);
+        RowCache rowCache = mock(RowCache.class);
+        TableVersionService tableVersionService = mock(TableVersionService.class);
+        OptionsService optionsService = mock(OptionsService.class);
+        CommonService commonService = new CommonService(mock(BaseService.class), mock(DataValidator.class),
+                mock(JwtService.class), metadataCache, mock(MetadataVersionService.class), listCountService,
+                listResultCache, rowCache, mock(NgramIndexService.class), mock(ReadRouting.class),
+                tableVersionService, mock(DictionaryCache.class), optionsService);
+
+        MetadataVersionService writer = node(event -> { });
+        MetadataVersionService reader = node(event -> commonService.onMetadataChanged((MetadataChangedEvent) event));
+        reader.poll();
+        writer.bump("sys_user");
+        reader.poll();
+
+        verify(metadataCache).invalidate("sys_user");
+        verify(listCountService).invalidate("sys_user");
+        verify(listResultCache).invalidate("sys_user");
+        verify(rowCache).invalidateTable("sys_user");
+        verify(optionsService).invalidate("sys_user");
+        verify(tableVersionService).bump("sys_user");
+
+        writer.bump(null);
+        reader.poll();
+
+        verify(metadataCache).invalidateAll();
+        verify(listCountService).invalidateAll();
+        verify(listResultCache).invalidateAll();
+        verify(rowCache).invalidateAll();
+        verify(optionsService).invalidateAll();
+        verify(tableVersionService).bumpAll();
+    }
+
+    @Test
+    void localDeleteBumpsOwnerTableOnly() {
+        BaseService baseService = mock(BaseService.class);
+        MetadataCache metadataCache = mock(MetadataCache.class);
+        MetadataVersionService metadataVersionService = mock(MetadataVersionService.class);
+        CommonService commonService = new CommonService(baseService, mock(DataValidator.class),
+                mock(JwtService.class), metadataCache, metadataVersionService, mock(ListCountService.class),
+                mock(ListResultCache.class), mock(RowCache.class), mock(NgramIndexService.class),
+                mock(ReadRouting.class), mock(TableVersionService.class), mock(DictionaryCache.class),
+                mock(OptionsService.class));
+        when(baseService.findById("column_attribute", 5)).thenReturn(Map.of("id", 5, "dbTableName", "sys_user"));
+
+        // 删除请求只带 id,所属业务表取自删除前的行
+        Map<String, Object> params = new HashMap<>(Map.of("targetTable", "column_attribute", "id", 5));
+        commonService.deleteData(params);
+
+        verify(metadataVersionService).bump("sys_user");
+        verify(metadataVersionService, never()).bump(null);
+        verify(metadataCache).invalidate("sys_user");
+        verify(metadataCache, never()).invalidateAll();
+    }
+
+    private MetadataVersionService node(ApplicationEventPublisher publisher) {
+        return new MetadataVersionService(systemMapper, publisher, true);
+    }
+
+    private List<String> tables() {
+        List<String> tables = new ArrayList<>();
+        events.forEach(event -> tables.add(event.getTable()));
+        return tables;
+    }
+}